@@ -1,20 +1,59 @@
 package org.slimmens.weather.forecaster.core;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import org.slimmens.weather.forecaster.core.math.Angle;
+import org.slimmens.weather.forecaster.core.math.DoublePoint;
 import org.slimmens.weather.forecaster.core.math.Point;
 import org.springframework.util.Assert;
 
 /**
  * {@link Orbit} implementation that represents a circular path with fixed
  * displacement angle and distance to the star.
+ * <p>
+ * A planet in a circular orbit can only reach the angles that are multiples of
+ * the greatest common divisor of its displacement and a whole rotation. When
+ * there are not too many of them, their positions are computed once and kept
+ * in a table shared by every orbit with the same distance and step, together
+ * with their coordinates as doubles, so moving a planet is just a lookup. Only
+ * the most recently created tables are kept for sharing, and each orbit holds
+ * on to its own.
  *
  * @author Nicols Martn
  */
 
 public class CircularOrbit implements Orbit {
 
+	/*
+	 * The maximum amount of reachable positions to keep in a table.
+	 */
+	private static final int MAXIMUM_TABLE_SIZE = 3600;
+
+	/*
+	 * The maximum amount of tables to keep for sharing.
+	 */
+	private static final int MAXIMUM_SHARED_TABLES = 64;
+
+	/*
+	 * The tables of reachable positions, shared by all the orbits with the
+	 * same distance and angle step, evicting the least recently used one.
+	 */
+	private static final Map<PositionTableKey, PositionTable> POSITION_TABLES = Collections
+			.synchronizedMap(new LinkedHashMap<PositionTableKey, PositionTable>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 5213428937140416372L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<PositionTableKey, PositionTable> eldest) {
+					return size() > MAXIMUM_SHARED_TABLES;
+				}
+
+			});
+
 	/**
 	 * The distance of the orbit path to the star.
 	 */
@@ -26,6 +65,16 @@ public class CircularOrbit implements Orbit {
 	 */
 	private final Angle angularDisplacement;
 
+	/**
+	 * The units between two consecutive reachable angles.
+	 */
+	private final long angleStep;
+
+	/**
+	 * The reachable positions, or <code>null</code> if there are too many.
+	 */
+	private final PositionTable positionTable;
+
 	/**
 	 * Constructs and initializes a circular orbit with the star distance and
 	 * angular displacement.
@@ -45,7 +94,13 @@ public class CircularOrbit implements Orbit {
 		Assert.notNull(angularDisplacement, "An angular displacement is required to create a new circular orbit.");
 
 		this.starDistance = starDistance;
-		this.angularDisplacement = angularDisplacement;
+		this.angularDisplacement = new Angle(angularDisplacement);
+		this.angleStep = PeriodAnalyzer.gcd(Angle.UNITS_PER_ROTATION, angularDisplacement.getUnits());
+
+		long size = Angle.UNITS_PER_ROTATION / angleStep;
+		this.positionTable = size > MAXIMUM_TABLE_SIZE ? null
+				: POSITION_TABLES.computeIfAbsent(new PositionTableKey(starDistance, angleStep),
+						key -> createPositionTable((int) size));
 	}
 
 	/**
@@ -58,7 +113,7 @@ public class CircularOrbit implements Orbit {
 	 */
 	@Override
 	public Point getInitialPosition() {
-		return new Point(starDistance, new Angle());
+		return getPosition(0);
 	}
 
 	/**
@@ -75,8 +130,7 @@ public class CircularOrbit implements Orbit {
 	 */
 	@Override
 	public Point getNextPosition(final Point currentPosition) {
-		Angle newAngle = currentPosition.getAngle().add(angularDisplacement);
-		return new Point(this.starDistance, newAngle);
+		return getPosition(currentPosition.getAngle().getUnits() + angularDisplacement.getUnits());
 	}
 
 	/**
@@ -93,8 +147,85 @@ public class CircularOrbit implements Orbit {
 	 */
 	@Override
 	public Point getPreviousPosition(final Point currentPosition) {
-		Angle newAngle = currentPosition.getAngle().substract(angularDisplacement);
-		return new Point(this.starDistance, newAngle);
+		return getPosition(currentPosition.getAngle().getUnits() - angularDisplacement.getUnits());
+	}
+
+	/**
+	 * Returns the position of a planet in this <code>Orbit</code> on the given
+	 * day. The returned position will be calculated multiplying the fixed
+	 * <code>angularDisplacement</code> by the given day, so it takes the same
+	 * time for any day.
+	 * 
+	 * @param day
+	 *            the amount of days elapsed since the initial position.
+	 * @return a {@link Point} representing the exact position of a planet in
+	 *         this orbit on the given day.
+	 */
+	@Override
+	public Point getPositionAt(final long day) {
+		return getPosition(angularDisplacement.multiply(day).getUnits());
+	}
+
+	/**
+	 * Returns the coordinates of the position of a planet in this
+	 * <code>Orbit</code> on the given day, straight from the table when the
+	 * orbit has one.
+	 * 
+	 * @param day
+	 *            the amount of days elapsed since the initial position.
+	 * @return a {@link DoublePoint} representing the position of a planet in
+	 *         this orbit on the given day.
+	 */
+	@Override
+	public DoublePoint getDoublePositionAt(final long day) {
+		long units = Math.floorMod(Math.floorMod(day, Angle.UNITS_PER_ROTATION) * angularDisplacement.getUnits(),
+				Angle.UNITS_PER_ROTATION);
+		if (positionTable != null && units % angleStep == 0) {
+			return positionTable.doublePositions[(int) (units / angleStep)];
+		}
+
+		return new DoublePoint(getPosition(units));
+	}
+
+	/**
+	 * Returns the angular velocity of a planet in this <code>Orbit</code>,
+	 * taking the <code>angularDisplacement</code> as the shortest rotation
+	 * between two days. So a displacement of 359 is a velocity of -1 per
+	 * day.
+	 * 
+	 * @return the angular velocity in radians per day.
+	 */
+	public double getAngularVelocity() {
+		long units = angularDisplacement.getUnits();
+		if (units > Angle.UNITS_PER_ROTATION / 2) {
+			units -= Angle.UNITS_PER_ROTATION;
+		}
+
+		return Math.toRadians((double) units / Angle.UNITS_PER_DEGREE);
+	}
+
+	/*
+	 * Returns the position on the angle of the given units, from the table when
+	 * the angle is a reachable one.
+	 */
+	private Point getPosition(long units) {
+		long normalizedUnits = Math.floorMod(units, Angle.UNITS_PER_ROTATION);
+		if (positionTable != null && normalizedUnits % angleStep == 0) {
+			return positionTable.positions[(int) (normalizedUnits / angleStep)];
+		}
+
+		return new Point(this.starDistance, Angle.fromUnits(normalizedUnits));
+	}
+
+	private PositionTable createPositionTable(int size) {
+		Point[] positions = new Point[size];
+		DoublePoint[] doublePositions = new DoublePoint[size];
+		for (int i = 0; i < size; i++) {
+			positions[i] = new Point(this.starDistance, Angle.fromUnits(i * angleStep));
+			doublePositions[i] = new DoublePoint(positions[i]);
+		}
+
+		return new PositionTable(positions, doublePositions);
 	}
 
 	public BigDecimal getStarDistance() {
@@ -102,7 +233,7 @@ public class CircularOrbit implements Orbit {
 	}
 
 	public Angle getAngularDisplacement() {
-		return angularDisplacement;
+		return new Angle(angularDisplacement);
 	}
 
 	@Override
@@ -110,4 +241,56 @@ public class CircularOrbit implements Orbit {
 		return "CircularOrbit [starDistance=" + starDistance + ", angularDisplacement=" + angularDisplacement + "]";
 	}
 
+	/**
+	 * The reachable positions of a table, indexed by their angle divided by the
+	 * angle step, both as points and as doubles.
+	 */
+	private static class PositionTable {
+
+		private final Point[] positions;
+
+		private final DoublePoint[] doublePositions;
+
+		private PositionTable(Point[] positions, DoublePoint[] doublePositions) {
+			this.positions = positions;
+			this.doublePositions = doublePositions;
+		}
+
+	}
+
+	/**
+	 * The distance and angle step that identify a table of positions.
+	 */
+	private static class PositionTableKey {
+
+		private final BigDecimal starDistance;
+
+		private final long angleStep;
+
+		private PositionTableKey(BigDecimal starDistance, long angleStep) {
+			this.starDistance = starDistance;
+			this.angleStep = angleStep;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(starDistance, angleStep);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof PositionTableKey)) {
+				return false;
+			}
+
+			PositionTableKey other = (PositionTableKey) obj;
+			return starDistance.equals(other.starDistance) && angleStep == other.angleStep;
+		}
+
+	}
+
 }
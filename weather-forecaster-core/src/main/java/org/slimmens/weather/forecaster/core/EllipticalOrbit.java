@@ -0,0 +1,281 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.math.BigDecimal;
+
+import org.slimmens.weather.forecaster.core.math.Angle;
+import org.slimmens.weather.forecaster.core.math.Point;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Orbit} implementation that represents an elliptical path with the
+ * star on one of its focuses, following Kepler's laws. The planet starts at
+ * the periapsis and its mean anomaly grows by a fixed angular displacement
+ * every day.
+ * <p>
+ * The position on a given mean anomaly comes from solving Kepler's equation
+ * <code>M = E - e sin(E)</code> for the eccentric anomaly <code>E</code>. The
+ * solutions are precomputed on a table when the orbit is created, so each
+ * position just takes an interpolation and a single Newton step.
+ *
+ * @author Nicols Martn
+ */
+public class EllipticalOrbit implements Orbit {
+
+	/*
+	 * The amount of intervals of the eccentric anomaly table over a rotation.
+	 */
+	private static final int TABLE_SIZE = 4096;
+
+	/*
+	 * The maximum amount of Newton steps when solving the table entries.
+	 */
+	private static final int MAXIMUM_ITERATIONS = 50;
+
+	private static final double UNITS_PER_RADIAN = Angle.UNITS_PER_ROTATION / (2 * Math.PI);
+
+	/**
+	 * Half of the longest diameter of the ellipse.
+	 */
+	private final BigDecimal semiMajorAxis;
+
+	/**
+	 * How much the ellipse deviates from a circle, from zero to one.
+	 */
+	private final double eccentricity;
+
+	/**
+	 * The mean anomaly that a <code>Planet</code> in this <code>Orbit</code>
+	 * will achieve during one day.
+	 */
+	private final Angle angularDisplacement;
+
+	/**
+	 * The angle between the reference direction and the periapsis.
+	 */
+	private final Angle argumentOfPeriapsis;
+
+	/**
+	 * The eccentric anomalies of equally spaced mean anomalies over a whole
+	 * rotation, both ends included.
+	 */
+	private final double[] eccentricAnomalies;
+
+	/**
+	 * The mean anomalies reachable from the periapsis are multiples of this
+	 * amount of units, which allows to recover them exactly from a position.
+	 */
+	private final long meanAnomalyStep;
+
+	/**
+	 * Constructs and initializes an elliptical orbit with its periapsis on the
+	 * reference direction.
+	 *
+	 * @param semiMajorAxis
+	 *            a {@link BigDecimal} representing half of the longest
+	 *            diameter of the ellipse. The axis must not be
+	 *            <code>null</code>.
+	 * @param eccentricity
+	 *            the eccentricity of the ellipse, from zero to one, excluded.
+	 * @param angularDisplacement
+	 *            an {@link Angle} representing the mean anomaly that a planet
+	 *            in this <code>Orbit</code> achieves during one day. The
+	 *            angular displacement must not be <code>null</code>.
+	 */
+	public EllipticalOrbit(BigDecimal semiMajorAxis, double eccentricity, Angle angularDisplacement) {
+		this(semiMajorAxis, eccentricity, angularDisplacement, new Angle());
+	}
+
+	/**
+	 * Constructs and initializes an elliptical orbit.
+	 *
+	 * @param semiMajorAxis
+	 *            a {@link BigDecimal} representing half of the longest
+	 *            diameter of the ellipse. The axis must not be
+	 *            <code>null</code>.
+	 * @param eccentricity
+	 *            the eccentricity of the ellipse, from zero to one, excluded.
+	 * @param angularDisplacement
+	 *            an {@link Angle} representing the mean anomaly that a planet
+	 *            in this <code>Orbit</code> achieves during one day. The
+	 *            angular displacement must not be <code>null</code>.
+	 * @param argumentOfPeriapsis
+	 *            an {@link Angle} between the reference direction and the
+	 *            periapsis. The angle must not be <code>null</code>.
+	 */
+	public EllipticalOrbit(BigDecimal semiMajorAxis, double eccentricity, Angle angularDisplacement,
+			Angle argumentOfPeriapsis) {
+		super();
+
+		Assert.notNull(semiMajorAxis, "A semi-major axis is required to create a new elliptical orbit.");
+		Assert.isTrue(eccentricity >= 0 && eccentricity < 1,
+				"The eccentricity of an elliptical orbit must be between zero and one.");
+		Assert.notNull(angularDisplacement, "An angular displacement is required to create a new elliptical orbit.");
+		Assert.notNull(argumentOfPeriapsis, "An argument of periapsis is required to create a new elliptical orbit.");
+
+		this.semiMajorAxis = semiMajorAxis;
+		this.eccentricity = eccentricity;
+		this.angularDisplacement = new Angle(angularDisplacement);
+		this.argumentOfPeriapsis = new Angle(argumentOfPeriapsis);
+		this.meanAnomalyStep = PeriodAnalyzer.gcd(Angle.UNITS_PER_ROTATION, angularDisplacement.getUnits());
+
+		this.eccentricAnomalies = new double[TABLE_SIZE + 1];
+		for (int i = 0; i <= TABLE_SIZE; i++) {
+			this.eccentricAnomalies[i] = solveKeplerEquation(2 * Math.PI * i / TABLE_SIZE);
+		}
+	}
+
+	/**
+	 * Returns the initial position of a planet in this <code>Orbit</code>,
+	 * which will be at the periapsis.
+	 *
+	 * @return a {@link Point} representing the initial position of a planet in
+	 *         this orbit.
+	 */
+	@Override
+	public Point getInitialPosition() {
+		return getPosition(0);
+	}
+
+	/**
+	 * Returns position for the next day based on the given position of a
+	 * planet in this <code>Orbit</code>. The mean anomaly of the given position
+	 * is recovered and increased by the fixed <code>angularDisplacement</code>.
+	 *
+	 * @param currentPosition
+	 *            a {@link Point} representing the current position of a planet
+	 *            in this orbit.
+	 * @return a {@link Point} representing the next position of a planet in
+	 *         this orbit.
+	 */
+	@Override
+	public Point getNextPosition(final Point currentPosition) {
+		return getPosition(getMeanAnomaly(currentPosition) + angularDisplacement.getUnits());
+	}
+
+	/**
+	 * Returns position for the previous day based on the given position of a
+	 * planet in this <code>Orbit</code>. The mean anomaly of the given position
+	 * is recovered and reduced by the fixed <code>angularDisplacement</code>.
+	 *
+	 * @param currentPosition
+	 *            a {@link Point} representing the current position of a planet
+	 *            in this orbit.
+	 * @return a {@link Point} representing the previous position of a planet in
+	 *         this orbit.
+	 */
+	@Override
+	public Point getPreviousPosition(final Point currentPosition) {
+		return getPosition(getMeanAnomaly(currentPosition) - angularDisplacement.getUnits());
+	}
+
+	/**
+	 * Returns the position of a planet in this <code>Orbit</code> on the given
+	 * day, where the mean anomaly is the fixed <code>angularDisplacement</code>
+	 * multiplied by the given day.
+	 *
+	 * @param day
+	 *            the amount of days elapsed since the initial position.
+	 * @return a {@link Point} representing the position of a planet in this
+	 *         orbit on the given day.
+	 */
+	@Override
+	public Point getPositionAt(final long day) {
+		return getPosition(angularDisplacement.multiply(day).getUnits());
+	}
+
+	/**
+	 * Returns the eccentric anomaly of the given mean anomaly, interpolated
+	 * from the precomputed table and refined with a single Newton step. The
+	 * mean anomaly is first reduced to a single rotation, and the whole
+	 * rotations are added back to the result.
+	 *
+	 * @param meanAnomaly
+	 *            the mean anomaly in radians. It must be a finite number.
+	 * @return the eccentric anomaly in radians.
+	 */
+	public double getEccentricAnomaly(final double meanAnomaly) {
+		Assert.isTrue(Double.isFinite(meanAnomaly), "The mean anomaly must be a finite number.");
+
+		double rotations = Math.floor(meanAnomaly / (2 * Math.PI));
+		double reducedAnomaly = Math.max(meanAnomaly - rotations * 2 * Math.PI, 0);
+
+		double index = reducedAnomaly * TABLE_SIZE / (2 * Math.PI);
+		int i = Math.min((int) index, TABLE_SIZE - 1);
+
+		double eccentricAnomaly = eccentricAnomalies[i]
+				+ (index - i) * (eccentricAnomalies[i + 1] - eccentricAnomalies[i]);
+
+		return eccentricAnomaly - (eccentricAnomaly - eccentricity * Math.sin(eccentricAnomaly) - reducedAnomaly)
+				/ (1 - eccentricity * Math.cos(eccentricAnomaly)) + rotations * 2 * Math.PI;
+	}
+
+	/*
+	 * Returns the position on the given mean anomaly, measured in units of an
+	 * Angle.
+	 */
+	private Point getPosition(long meanAnomalyUnits) {
+		double meanAnomaly = Math.floorMod(meanAnomalyUnits, Angle.UNITS_PER_ROTATION) / UNITS_PER_RADIAN;
+		double eccentricAnomaly = getEccentricAnomaly(meanAnomaly);
+
+		double trueAnomaly = 2 * Math.atan2(Math.sqrt(1 + eccentricity) * Math.sin(eccentricAnomaly / 2),
+				Math.sqrt(1 - eccentricity) * Math.cos(eccentricAnomaly / 2));
+		BigDecimal distance = semiMajorAxis
+				.multiply(BigDecimal.valueOf(1 - eccentricity * Math.cos(eccentricAnomaly)));
+
+		return new Point(distance, new Angle(trueAnomaly).add(argumentOfPeriapsis));
+	}
+
+	/*
+	 * Recovers the mean anomaly of a position of this orbit, snapped to the
+	 * mean anomalies that a planet can reach from the periapsis so rounding
+	 * does not build up from one day to the next.
+	 */
+	private long getMeanAnomaly(Point position) {
+		double trueAnomaly = position.getAngle().substract(argumentOfPeriapsis).toRadians();
+		double eccentricAnomaly = 2 * Math.atan2(Math.sqrt(1 - eccentricity) * Math.sin(trueAnomaly / 2),
+				Math.sqrt(1 + eccentricity) * Math.cos(trueAnomaly / 2));
+		double meanAnomaly = eccentricAnomaly - eccentricity * Math.sin(eccentricAnomaly);
+
+		return Math.round(meanAnomaly * UNITS_PER_RADIAN / meanAnomalyStep) * meanAnomalyStep;
+	}
+
+	private double solveKeplerEquation(double meanAnomaly) {
+		double eccentricAnomaly = eccentricity > 0.8 ? Math.PI : meanAnomaly;
+
+		for (int i = 0; i < MAXIMUM_ITERATIONS; i++) {
+			double delta = (eccentricAnomaly - eccentricity * Math.sin(eccentricAnomaly) - meanAnomaly)
+					/ (1 - eccentricity * Math.cos(eccentricAnomaly));
+			eccentricAnomaly -= delta;
+
+			if (Math.abs(delta) < 1e-15) {
+				break;
+			}
+		}
+
+		return eccentricAnomaly;
+	}
+
+	public BigDecimal getSemiMajorAxis() {
+		return semiMajorAxis;
+	}
+
+	public double getEccentricity() {
+		return eccentricity;
+	}
+
+	public Angle getAngularDisplacement() {
+		return new Angle(angularDisplacement);
+	}
+
+	public Angle getArgumentOfPeriapsis() {
+		return new Angle(argumentOfPeriapsis);
+	}
+
+	@Override
+	public String toString() {
+		return "EllipticalOrbit [semiMajorAxis=" + semiMajorAxis + ", eccentricity=" + eccentricity
+				+ ", angularDisplacement=" + angularDisplacement + ", argumentOfPeriapsis=" + argumentOfPeriapsis
+				+ "]";
+	}
+
+}
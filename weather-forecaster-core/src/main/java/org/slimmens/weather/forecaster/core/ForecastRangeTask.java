@@ -0,0 +1,149 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.util.concurrent.RecursiveAction;
+
+import org.slimmens.weather.forecaster.core.math.DoublePoint;
+import org.slimmens.weather.forecaster.core.math.DoublePolygon;
+import org.slimmens.weather.forecaster.core.math.Point;
+
+/**
+ * A {@link RecursiveAction} that fills a slice of an array of weather
+ * conditions, splitting it in halves until it is small enough to be evaluated
+ * sequentially. Each sequential chunk streams its days through its own
+ * {@link WeatherConditionEvaluator}, seeded from the orbits on its first day,
+ * or through the {@link WeatherBatchKernel} when the geometry of up to three
+ * planets is evaluated with doubles.
+ *
+ * @author Nicols Martn
+ */
+class ForecastRangeTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 4370128863563271634L;
+
+	/*
+	 * The amount of days below which a chunk is not split anymore.
+	 */
+	private static final int THRESHOLD = 256;
+
+	private static final WeatherCondition[] CONDITIONS = WeatherCondition.values();
+
+	private final GeometryMode mode;
+
+	private final Point starPosition;
+
+	private final Orbit[] orbits;
+
+	/**
+	 * The day of the first condition of the array.
+	 */
+	private final long startDay;
+
+	private final WeatherCondition[] conditions;
+
+	private final int offset;
+
+	private final int length;
+
+	ForecastRangeTask(GeometryMode mode, Point starPosition, Orbit[] orbits, long startDay,
+			WeatherCondition[] conditions, int offset, int length) {
+		super();
+		this.mode = mode;
+		this.starPosition = starPosition;
+		this.orbits = orbits;
+		this.startDay = startDay;
+		this.conditions = conditions;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	@Override
+	protected void compute() {
+		if (length <= THRESHOLD) {
+			computeDirectly();
+			return;
+		}
+
+		int half = length / 2;
+		invokeAll(new ForecastRangeTask(mode, starPosition, orbits, startDay, conditions, offset, half),
+				new ForecastRangeTask(mode, starPosition, orbits, startDay, conditions, offset + half, length - half));
+	}
+
+	/*
+	 * Evaluates the whole slice in the calling thread, one chunk after the
+	 * other, for callers that already run on a worker of their own.
+	 */
+	void computeSequentially() {
+		for (int chunk = 0; chunk < length; chunk += THRESHOLD) {
+			new ForecastRangeTask(mode, starPosition, orbits, startDay, conditions, offset + chunk,
+					Math.min(THRESHOLD, length - chunk)).computeDirectly();
+		}
+	}
+
+	private void computeDirectly() {
+		if (mode == GeometryMode.DOUBLE && orbits.length <= 3) {
+			computeBlock();
+			return;
+		}
+
+		WeatherConditionEvaluator evaluator = new WeatherConditionEvaluator(mode, starPosition, startDay + offset,
+				orbits);
+		for (int index = offset; index < offset + length; index++) {
+			conditions[index] = evaluator.next();
+		}
+	}
+
+	/*
+	 * Evaluates the chunk with the batch kernel, from the day before its first
+	 * day to the day after its last one, so every day has its neighbors. The
+	 * coordinates are read as doubles straight from the orbits.
+	 */
+	private void computeBlock() {
+		int days = length + 2;
+		long firstDay = startDay + offset - 1;
+		double[] xs = new double[orbits.length * days];
+		double[] ys = new double[orbits.length * days];
+
+		for (int p = 0; p < orbits.length; p++) {
+			for (int d = 0; d < days; d++) {
+				DoublePoint position = orbits[p].getDoublePositionAt(firstDay + d);
+				xs[p * days + d] = position.getX();
+				ys[p * days + d] = position.getY();
+			}
+		}
+
+		double[] perimeters = new double[days];
+		byte[] block = new byte[days];
+		WeatherBatchKernel.evaluate(starPosition.getX().doubleValue(), starPosition.getY().doubleValue(), xs, ys,
+				orbits.length, days, perimeters, block);
+		WeatherBatchKernel.markRainPicks(block, perimeters, 1, days - 1,
+				getPreviousPerimeter(perimeters[0], perimeters[1], firstDay));
+
+		for (int d = 1; d < days - 1; d++) {
+			conditions[offset + d - 1] = CONDITIONS[block[d]];
+		}
+	}
+
+	/*
+	 * Returns the given perimeter of the day before the chunk, unless it is
+	 * the same as the one of the first day. In that case, the chunk starts in
+	 * the middle of a plateau and the days before are walked back until a
+	 * different perimeter is found.
+	 */
+	private double getPreviousPerimeter(double perimeter, double firstPerimeter, long day) {
+		double[] xs = new double[orbits.length];
+		double[] ys = new double[orbits.length];
+
+		for (int days = 1; days < WeatherConditionEvaluator.MAXIMUM_PLATEAU && perimeter == firstPerimeter; days++) {
+			for (int p = 0; p < orbits.length; p++) {
+				DoublePoint position = orbits[p].getDoublePositionAt(day - days);
+				xs[p] = position.getX();
+				ys[p] = position.getY();
+			}
+
+			perimeter = DoublePolygon.getPerimeter(xs, ys, orbits.length);
+		}
+
+		return perimeter;
+	}
+
+}
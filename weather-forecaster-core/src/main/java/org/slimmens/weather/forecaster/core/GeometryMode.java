@@ -0,0 +1,22 @@
+package org.slimmens.weather.forecaster.core;
+
+/**
+ * Specify the arithmetic used by the {@link WeatherForecaster} to evaluate the
+ * geometry of the planets positions.
+ *
+ * @author Nicols Martn
+ */
+public enum GeometryMode {
+
+	/*
+	 * Exact arithmetic based on BigDecimal points and polygons.
+	 */
+	BIG_DECIMAL,
+
+	/*
+	 * Primitive double arithmetic, which avoids the BigDecimal allocations on
+	 * every evaluated day.
+	 */
+	DOUBLE;
+
+}
@@ -1,5 +1,6 @@
 package org.slimmens.weather.forecaster.core;
 
+import org.slimmens.weather.forecaster.core.math.DoublePoint;
 import org.slimmens.weather.forecaster.core.math.Point;
 
 /**
@@ -44,4 +45,34 @@ public interface Orbit {
 	 */
 	public Point getPreviousPosition(final Point currentPosition);
 
+	/**
+	 * Implementations must implement this method to calculate the position of
+	 * a planet in this <code>Orbit</code> on the given day, being the day zero
+	 * the one of the initial position. The position must be calculated
+	 * directly, without stepping through the previous days.
+	 * 
+	 * @param day
+	 *            the amount of days elapsed since the initial position. It may
+	 *            be negative to get the positions before the initial one.
+	 * @return a {@link Point} representing the exact position of a planet in
+	 *         this <code>Orbit</code> on the given day.
+	 */
+	public Point getPositionAt(final long day);
+
+	/**
+	 * Returns the Cartesian coordinates of the position of a planet in this
+	 * <code>Orbit</code> on the given day as primitive doubles, which are the
+	 * same as the coordinates of {@link #getPositionAt(long)}. Implementations
+	 * may override this method to get them without building a {@link Point}.
+	 * 
+	 * @param day
+	 *            the amount of days elapsed since the initial position. It may
+	 *            be negative to get the positions before the initial one.
+	 * @return a {@link DoublePoint} representing the position of a planet in
+	 *         this <code>Orbit</code> on the given day.
+	 */
+	public default DoublePoint getDoublePositionAt(final long day) {
+		return new DoublePoint(getPositionAt(day));
+	}
+
 }
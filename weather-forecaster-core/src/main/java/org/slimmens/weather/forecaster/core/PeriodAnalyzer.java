@@ -0,0 +1,113 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.util.OptionalLong;
+
+import org.slimmens.weather.forecaster.core.math.Angle;
+import org.springframework.util.Assert;
+
+/**
+ * A useful helper class to detect after how many days the planets of a solar
+ * system return to the same positions.
+ *
+ * @author Nicols Martn
+ */
+public class PeriodAnalyzer {
+
+	/**
+	 * Returns the amount of days that a planet following the given
+	 * {@link Orbit} takes to return to the same position. Only the
+	 * {@link CircularOrbit} and {@link EllipticalOrbit} are known to be
+	 * periodic, in which case the period is the amount of displacements needed
+	 * to complete an exact number of rotations.
+	 *
+	 * @param orbit
+	 *            the {@link Orbit} to analyze. The orbit must not be
+	 *            <code>null</code>.
+	 * @return an {@link OptionalLong} with the period in days, or an empty one
+	 *         if the orbit is not known to be periodic.
+	 */
+	public static OptionalLong getPeriod(final Orbit orbit) {
+		Assert.notNull(orbit, "An orbit is required to get its period.");
+
+		long displacement;
+		if (orbit instanceof CircularOrbit) {
+			displacement = ((CircularOrbit) orbit).getAngularDisplacement().getUnits();
+		} else if (orbit instanceof EllipticalOrbit) {
+			displacement = ((EllipticalOrbit) orbit).getAngularDisplacement().getUnits();
+		} else {
+			return OptionalLong.empty();
+		}
+
+		return OptionalLong.of(Angle.UNITS_PER_ROTATION / gcd(Angle.UNITS_PER_ROTATION, displacement));
+	}
+
+	/**
+	 * Returns the amount of days that the planets following the given orbits
+	 * take to return all together to the same positions, which is the least
+	 * common multiple of their periods.
+	 *
+	 * @param orbits
+	 *            an array of {@link Orbit} to analyze. The array must not be
+	 *            <code>null</code>.
+	 * @return an {@link OptionalLong} with the joint period in days, or an
+	 *         empty one if any orbit is not periodic or the joint period does
+	 *         not fit in a <code>long</code>.
+	 */
+	public static OptionalLong getJointPeriod(final Orbit... orbits) {
+		Assert.notNull(orbits, "At least one orbit is required to get the joint period.");
+
+		long jointPeriod = 1;
+		for (Orbit orbit : orbits) {
+			OptionalLong period = getPeriod(orbit);
+			if (!period.isPresent()) {
+				return OptionalLong.empty();
+			}
+
+			try {
+				jointPeriod = Math.multiplyExact(jointPeriod / gcd(jointPeriod, period.getAsLong()),
+						period.getAsLong());
+			} catch (ArithmeticException e) {
+				return OptionalLong.empty();
+			}
+		}
+
+		return OptionalLong.of(jointPeriod);
+	}
+
+	/**
+	 * Returns the amount of days that the given planets take to return all
+	 * together to the same positions.
+	 *
+	 * @param planets
+	 *            an array of {@link Planet} to analyze. The array must not be
+	 *            <code>null</code>.
+	 * @return an {@link OptionalLong} with the joint period in days, or an
+	 *         empty one if the planets are not periodic.
+	 * @see #getJointPeriod(Orbit...)
+	 */
+	public static OptionalLong getJointPeriod(final Planet... planets) {
+		Assert.notNull(planets, "At least one planet is required to get the joint period.");
+
+		Orbit[] orbits = new Orbit[planets.length];
+		for (int i = 0; i < planets.length; i++) {
+			orbits[i] = planets[i].getOrbit();
+		}
+
+		return getJointPeriod(orbits);
+	}
+
+	/*
+	 * Returns the greatest common divisor of two amounts, which the orbits
+	 * also use for the step of their position tables.
+	 */
+	static long gcd(long a, long b) {
+		while (b != 0) {
+			long remainder = a % b;
+			a = b;
+			b = remainder;
+		}
+
+		return a;
+	}
+
+}
@@ -0,0 +1,96 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.util.Arrays;
+
+/**
+ * A run of consecutive days of a solar system with the same weather
+ * condition. Rain picks are part of the rain season where they happen, and
+ * the first of them is the peak of the season.
+ *
+ * @author Nicols Martn
+ */
+public class Season {
+
+	/**
+	 * The weather condition of this <code>Season</code>, which is never
+	 * {@link WeatherCondition#RAIN_PICK}.
+	 */
+	private final WeatherCondition condition;
+
+	/**
+	 * The first day of this <code>Season</code>.
+	 */
+	private final long startDay;
+
+	/**
+	 * The last day of this <code>Season</code>, inclusive.
+	 */
+	private final long endDay;
+
+	/**
+	 * The days of the rain picks of this <code>Season</code> in ascending
+	 * order, which is empty if it has none.
+	 */
+	private final long[] pickDays;
+
+	/**
+	 * Constructs and initializes a season with the given condition and days.
+	 *
+	 * @param condition
+	 *            the {@link WeatherCondition} of the season.
+	 * @param startDay
+	 *            the first day of the season.
+	 * @param endDay
+	 *            the last day of the season, inclusive.
+	 * @param pickDays
+	 *            the days of the rain picks of the season in ascending order,
+	 *            if it has any.
+	 */
+	public Season(WeatherCondition condition, long startDay, long endDay, long... pickDays) {
+		super();
+		this.condition = condition;
+		this.startDay = startDay;
+		this.endDay = endDay;
+		this.pickDays = pickDays.clone();
+	}
+
+	public boolean hasPeak() {
+		return pickDays.length > 0;
+	}
+
+	public long getDays() {
+		return endDay - startDay + 1;
+	}
+
+	public WeatherCondition getCondition() {
+		return condition;
+	}
+
+	public long getStartDay() {
+		return startDay;
+	}
+
+	public long getEndDay() {
+		return endDay;
+	}
+
+	/**
+	 * Returns the day of the first rain pick of this <code>Season</code>.
+	 *
+	 * @return the day of the peak, or <code>-1</code> if it has none.
+	 */
+	public long getPeakDay() {
+		return hasPeak() ? pickDays[0] : -1;
+	}
+
+	public long[] getPickDays() {
+		return pickDays.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "Season [condition=" + condition + ", startDay=" + startDay + ", endDay=" + endDay + ", pickDays="
+				+ Arrays.toString(pickDays) + "]";
+	}
+
+}
@@ -0,0 +1,278 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.springframework.util.Assert;
+
+/**
+ * A streaming analyzer that turns the weather conditions of consecutive days
+ * into {@link Season}. Every season is handed to a sink as soon as it is
+ * closed, so the analyzer keeps a constant amount of state regardless of the
+ * amount of days.
+ * <p>
+ * Analyzers of consecutive ranges of days can be merged, joining the season
+ * that crosses their boundary. For that purpose, an analyzer whose range may
+ * continue a previous one holds back its first season until it is merged or
+ * finished, so that season is the last one it hands to the sink.
+ *
+ * @author Nicols Martn
+ */
+public class SeasonAnalyzer {
+
+	/**
+	 * The receiver of the closed seasons.
+	 */
+	private final Consumer<Season> sink;
+
+	/**
+	 * Whether the first season may continue a previous range of days.
+	 */
+	private final boolean joinable;
+
+	/**
+	 * The first day of the analyzed range.
+	 */
+	private final long startDay;
+
+	/**
+	 * The day whose condition is expected next.
+	 */
+	private long nextDay;
+
+	/**
+	 * The first season of the range, only held back when it is joinable.
+	 */
+	private Run leading;
+
+	/**
+	 * The season of the last day, which is still open.
+	 */
+	private Run trailing;
+
+	/**
+	 * The amount of seasons handed to the sink, by condition.
+	 */
+	private final long[] seasonCounts = new long[WeatherCondition.values().length];
+
+	private long rainPicks;
+
+	/**
+	 * Constructs and initializes an analyzer of the days from zero, which
+	 * hands the seasons to the sink in order.
+	 *
+	 * @param sink
+	 *            a {@link Consumer} that receives the closed seasons.
+	 */
+	public SeasonAnalyzer(Consumer<Season> sink) {
+		this(0, false, sink);
+	}
+
+	/**
+	 * Constructs and initializes an analyzer of the days from the given one.
+	 *
+	 * @param startDay
+	 *            the first day to analyze.
+	 * @param joinable
+	 *            <code>true</code> if the first season may continue a previous
+	 *            range, which is the case of every range but the first one when
+	 *            the analyzers are merged.
+	 * @param sink
+	 *            a {@link Consumer} that receives the closed seasons.
+	 */
+	public SeasonAnalyzer(long startDay, boolean joinable, Consumer<Season> sink) {
+		super();
+
+		Assert.notNull(sink, "A sink is required to receive the seasons.");
+
+		this.sink = sink;
+		this.joinable = joinable;
+		this.startDay = startDay;
+		this.nextDay = startDay;
+	}
+
+	/**
+	 * Analyzes the weather condition of the next day.
+	 *
+	 * @param condition
+	 *            the {@link WeatherCondition} of the next day.
+	 */
+	public void accept(WeatherCondition condition) {
+		Assert.notNull(condition, "A weather condition is required to analyze the seasons.");
+
+		boolean pick = condition == WeatherCondition.RAIN_PICK;
+		WeatherCondition seasonCondition = pick ? WeatherCondition.RAIN : condition;
+
+		if (trailing != null && trailing.condition == seasonCondition) {
+			trailing.endDay = nextDay;
+		} else {
+			Run run = new Run(seasonCondition, nextDay);
+			append(run, run);
+		}
+
+		if (pick) {
+			trailing.addPickDay(nextDay);
+			rainPicks++;
+		}
+
+		nextDay++;
+	}
+
+	/**
+	 * Merges the analysis of the range of days that follows the range of this
+	 * analyzer. The given analyzer must be joinable and is left unusable.
+	 *
+	 * @param next
+	 *            the <code>SeasonAnalyzer</code> of the following range.
+	 */
+	public void merge(SeasonAnalyzer next) {
+		Assert.notNull(next, "An analyzer is required to be merged.");
+		Assert.isTrue(next.joinable, "Only joinable analyzers can be merged.");
+		Assert.isTrue(next.startDay == nextDay, "Only analyzers of consecutive ranges can be merged.");
+
+		if (next.trailing != null) {
+			append(next.leading, next.trailing);
+		}
+
+		for (int i = 0; i < seasonCounts.length; i++) {
+			seasonCounts[i] += next.seasonCounts[i];
+		}
+
+		rainPicks += next.rainPicks;
+		nextDay = next.nextDay;
+	}
+
+	/**
+	 * Hands the held and the open seasons to the sink, once there are no more
+	 * days to analyze.
+	 */
+	public void finish() {
+		if (leading != null) {
+			emit(leading);
+		}
+
+		if (trailing != null && trailing != leading) {
+			emit(trailing);
+		}
+
+		leading = null;
+		trailing = null;
+	}
+
+	/**
+	 * Returns the amount of seasons with the given condition, including the
+	 * ones not handed to the sink yet.
+	 *
+	 * @param condition
+	 *            a {@link WeatherCondition}.
+	 * @return the amount of seasons with that condition.
+	 */
+	public long getSeasonCount(WeatherCondition condition) {
+		long count = seasonCounts[condition.ordinal()];
+		if (leading != null && leading.condition == condition) {
+			count++;
+		}
+
+		if (trailing != null && trailing != leading && trailing.condition == condition) {
+			count++;
+		}
+
+		return count;
+	}
+
+	public long getRainPicks() {
+		return rainPicks;
+	}
+
+	public long getStartDay() {
+		return startDay;
+	}
+
+	public long getEndDay() {
+		return nextDay;
+	}
+
+	/*
+	 * Appends the seasons from first to last, where the ones in between were
+	 * already handed to a sink. The first one is joined to the open season
+	 * when both have the same condition.
+	 */
+	private void append(Run first, Run last) {
+		if (trailing != null && trailing.condition == first.condition) {
+			trailing.endDay = first.endDay;
+			trailing.addPickDays(first.pickDays, first.pickCount);
+		} else {
+			if (trailing != null) {
+				close(trailing);
+			} else if (joinable) {
+				leading = first;
+			}
+
+			trailing = first;
+		}
+
+		if (first != last) {
+			close(trailing);
+			trailing = last;
+		}
+	}
+
+	private void close(Run run) {
+		if (run != leading) {
+			emit(run);
+		}
+	}
+
+	private void emit(Run run) {
+		seasonCounts[run.condition.ordinal()]++;
+		sink.accept(
+				new Season(run.condition, run.startDay, run.endDay, Arrays.copyOf(run.pickDays, run.pickCount)));
+	}
+
+	/**
+	 * A season that may still grow.
+	 */
+	private static class Run {
+
+		private final WeatherCondition condition;
+
+		private final long startDay;
+
+		private long endDay;
+
+		private long[] pickDays = new long[1];
+
+		private int pickCount;
+
+		private Run(WeatherCondition condition, long day) {
+			this.condition = condition;
+			this.startDay = day;
+			this.endDay = day;
+		}
+
+		/*
+		 * Appends the given pick day, which comes after the ones of this run.
+		 */
+		private void addPickDay(long day) {
+			if (pickCount == pickDays.length) {
+				pickDays = Arrays.copyOf(pickDays, 2 * pickDays.length);
+			}
+
+			pickDays[pickCount++] = day;
+		}
+
+		/*
+		 * Appends the given pick days, which come after the ones of this run.
+		 */
+		private void addPickDays(long[] days, int count) {
+			if (pickCount + count > pickDays.length) {
+				pickDays = Arrays.copyOf(pickDays, Math.max(2 * pickDays.length, pickCount + count));
+			}
+
+			System.arraycopy(days, 0, pickDays, pickCount, count);
+			pickCount += count;
+		}
+
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.slimmens.weather.forecaster.core.math.Angle;
+import org.slimmens.weather.forecaster.core.math.Point;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * A solar system, made of a star and the planets that move around it. Only
+ * the orbits of the planets are used to forecast the weather, so a solar
+ * system can be shared between threads as long as its planets are not moved.
+ * 
+ * @author Nicols Martn
+ */
+public class SolarSystem {
+
+	/**
+	 * The name of this <code>SolarSystem</code>.
+	 */
+	private final String name;
+
+	/**
+	 * The position of the star of this <code>SolarSystem</code>.
+	 */
+	private final Point starPosition;
+
+	/**
+	 * The planets of this <code>SolarSystem</code>, in the order used to
+	 * evaluate its weather.
+	 */
+	private final List<Planet> planets;
+
+	/**
+	 * Constructs and initializes a solar system with the given star and
+	 * planets.
+	 * 
+	 * @param name
+	 *            a {@link String} with the name of the solar system. The name
+	 *            must not be <code>null</code>.
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star. The
+	 *            position must not be <code>null</code>.
+	 * @param planets
+	 *            the {@link Planet} that move around the star. There must be at
+	 *            least one planet.
+	 */
+	public SolarSystem(String name, Point starPosition, Planet... planets) {
+		super();
+
+		Assert.isTrue(!StringUtils.isEmpty(name), "A name is required to create a new solar system.");
+		Assert.notNull(starPosition, "A star location is required to create a new solar system.");
+		Assert.notEmpty(planets, "At least one planet is required to create a new solar system.");
+		Assert.noNullElements(planets, "The planets of a solar system must not be null.");
+
+		this.name = name;
+		this.starPosition = starPosition;
+		this.planets = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(planets)));
+	}
+
+	/**
+	 * Creates the solar system of the Ferengis, Betasoide and Vulcano planets,
+	 * with its star at the origin.
+	 * 
+	 * @return a new <code>SolarSystem</code> with the three planets on their
+	 *         initial positions.
+	 */
+	public static SolarSystem createDefault() {
+		return new SolarSystem("Default", new Point(),
+				new Planet("Ferengis", new CircularOrbit(new BigDecimal(500), new Angle(-1))),
+				new Planet("Betasoide", new CircularOrbit(new BigDecimal(2000), new Angle(-3))),
+				new Planet("Vulcano", new CircularOrbit(new BigDecimal(1000), new Angle(5))));
+	}
+
+	/**
+	 * Returns the orbits of the planets of this solar system.
+	 * 
+	 * @return a new array of {@link Orbit} in the same order as the planets.
+	 */
+	public Orbit[] getOrbits() {
+		Orbit[] orbits = new Orbit[planets.size()];
+		for (int i = 0; i < orbits.length; i++) {
+			orbits[i] = planets.get(i).getOrbit();
+		}
+
+		return orbits;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Point getStarPosition() {
+		return starPosition;
+	}
+
+	public List<Planet> getPlanets() {
+		return planets;
+	}
+
+	@Override
+	public String toString() {
+		return "SolarSystem [name=" + name + ", starPosition=" + starPosition + ", planets=" + planets + "]";
+	}
+
+}
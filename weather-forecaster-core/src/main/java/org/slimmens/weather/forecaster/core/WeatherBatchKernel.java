@@ -0,0 +1,211 @@
+package org.slimmens.weather.forecaster.core;
+
+import org.slimmens.weather.forecaster.core.math.DoublePolygon;
+import org.slimmens.weather.forecaster.core.math.GeometricPredicates;
+import org.slimmens.weather.forecaster.core.math.MathConstants;
+import org.springframework.util.Assert;
+
+/**
+ * A useful helper class to evaluate the weather conditions of a block of
+ * consecutive days at once. The positions of the planets are given as
+ * contiguous arrays of primitive coordinates, one run of days per planet, and
+ * every figure is computed a side of the polygon at a time across all the
+ * days, so the loops are simple enough to be unrolled by the compiler.
+ * <p>
+ * The planets must form a convex polygon, like the triangle of three planets.
+ * The star is tested against each side with the double orientation
+ * determinant and its error bound, and only the days where some determinant
+ * falls within its bound are tested again with the exact
+ * {@link GeometricPredicates}, in a second pass, so the loop over the days has
+ * no calls nor exact arithmetic. The results are the same as evaluating each
+ * day with a {@link DoublePolygon}, and the conditions are written as the
+ * ordinals of {@link WeatherCondition}.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherBatchKernel {
+
+	private static final byte NONE = (byte) WeatherCondition.NONE.ordinal();
+
+	private static final byte RAIN = (byte) WeatherCondition.RAIN.ordinal();
+
+	private static final byte RAIN_PICK = (byte) WeatherCondition.RAIN_PICK.ordinal();
+
+	private static final byte DROUGHT = (byte) WeatherCondition.DROUGHT.ordinal();
+
+	private static final byte OPTIMAL_PRESSURE_AND_TEMP = (byte) WeatherCondition.OPTIMAL_PRESSURE_AND_TEMP
+			.ordinal();
+
+	/*
+	 * The sides of the polygon where the star is found. The star is inside a
+	 * convex polygon when it is on the same side of all of them.
+	 */
+	private static final byte LEFT = 1;
+
+	private static final byte RIGHT = 2;
+
+	private static final byte ON_SIDE = 4;
+
+	/*
+	 * The star is too close to a side to trust the sign of the double
+	 * determinant.
+	 */
+	private static final byte UNCERTAIN = 8;
+
+	/**
+	 * Evaluates the weather conditions and the perimeter of the planets for a
+	 * block of days. The coordinates of the planet <code>p</code> on the day
+	 * <code>d</code> of the block are <code>xs[p * days + d]</code> and
+	 * <code>ys[p * days + d]</code>. Rain picks are not told apart from rain,
+	 * see {@link #markRainPicks(byte[], double[], int, int, double)}.
+	 *
+	 * @param starX
+	 *            the X component of the position of the star.
+	 * @param starY
+	 *            the Y component of the position of the star.
+	 * @param xs
+	 *            the X components of the positions of the planets.
+	 * @param ys
+	 *            the Y components of the positions of the planets.
+	 * @param bodies
+	 *            the amount of planets.
+	 * @param days
+	 *            the amount of days of the block.
+	 * @param perimeters
+	 *            an array where the perimeter of each day is written.
+	 * @param conditions
+	 *            an array where the ordinal of the {@link WeatherCondition} of
+	 *            each day is written.
+	 */
+	public static void evaluate(final double starX, final double starY, final double[] xs, final double[] ys,
+			final int bodies, final int days, final double[] perimeters, final byte[] conditions) {
+		Assert.isTrue(bodies > 0, "At least one planet is required to evaluate the weather conditions.");
+		Assert.isTrue(xs.length >= bodies * days && ys.length >= bodies * days,
+				"The positions must cover every planet on every day of the block.");
+		Assert.isTrue(perimeters.length >= days && conditions.length >= days,
+				"The results must have room for every day of the block.");
+
+		double[] areas = new double[days];
+		double[] starAreas = new double[days];
+		byte[] sides = new byte[days];
+
+		for (int d = 0; d < days; d++) {
+			perimeters[d] = 0;
+		}
+
+		// The polygon with the star starts with the side that closes it, from
+		// the star to the first planet.
+		for (int d = 0; d < days; d++) {
+			starAreas[d] = (starX + xs[d]) * (starY - ys[d]);
+		}
+
+		int j = (bodies - 1) * days;
+		for (int p = 0; p < bodies; p++) {
+			int i = p * days;
+
+			for (int d = 0; d < days; d++) {
+				double componentX = xs[j + d] - xs[i + d];
+				double componentY = ys[j + d] - ys[i + d];
+				perimeters[d] += Math.sqrt(componentX * componentX + componentY * componentY);
+			}
+
+			for (int d = 0; d < days; d++) {
+				areas[d] += (xs[j + d] + xs[i + d]) * (ys[j + d] - ys[i + d]);
+			}
+
+			for (int d = 0; d < days; d++) {
+				double left = (xs[j + d] - starX) * (ys[i + d] - starY);
+				double right = (ys[j + d] - starY) * (xs[i + d] - starX);
+				double determinant = left - right;
+				double errorBound = GeometricPredicates.EXACT_INPUT_ERROR_BOUND * (Math.abs(left) + Math.abs(right));
+				sides[d] |= determinant > errorBound ? LEFT : determinant < -errorBound ? RIGHT : UNCERTAIN;
+			}
+
+			if (p > 0) {
+				for (int d = 0; d < days; d++) {
+					starAreas[d] += (xs[j + d] + xs[i + d]) * (ys[j + d] - ys[i + d]);
+				}
+			}
+
+			j = i;
+		}
+
+		// And ends with the side from the last planet back to the star.
+		for (int d = 0; d < days; d++) {
+			starAreas[d] += (xs[j + d] + starX) * (ys[j + d] - starY);
+		}
+
+		for (int d = 0; d < days; d++) {
+			if ((sides[d] & UNCERTAIN) != 0) {
+				sides[d] = getExactSides(starX, starY, xs, ys, bodies, days, d);
+			}
+		}
+
+		for (int d = 0; d < days; d++) {
+			if (Math.abs(areas[d] / 2) <= MathConstants.DEFAULT_AREA_TOLERANCE) {
+				conditions[d] = Math.abs(starAreas[d] / 2) <= MathConstants.DEFAULT_AREA_TOLERANCE ? DROUGHT
+						: OPTIMAL_PRESSURE_AND_TEMP;
+			} else {
+				conditions[d] = sides[d] == LEFT || sides[d] == RIGHT ? RAIN : NONE;
+			}
+		}
+	}
+
+	/*
+	 * Returns the sides of the polygon where the star is found on the given
+	 * day, with the exact orientation of every side.
+	 */
+	private static byte getExactSides(double starX, double starY, double[] xs, double[] ys, int bodies, int days,
+			int d) {
+		byte sides = 0;
+		int j = (bodies - 1) * days + d;
+		for (int p = 0; p < bodies; p++) {
+			int i = p * days + d;
+			int orientation = GeometricPredicates.orientation(xs[j], ys[j], xs[i], ys[i], starX, starY);
+			sides |= orientation > 0 ? LEFT : orientation < 0 ? RIGHT : ON_SIDE;
+
+			j = i;
+		}
+
+		return sides;
+	}
+
+	/**
+	 * Marks the rain picks of a range of days evaluated with
+	 * {@link #evaluate(double, double, double[], double[], int, int, double[], byte[])}.
+	 * A rain pick is the last day of a plateau of maximum perimeter, so the
+	 * perimeter of the day after the range is required too.
+	 *
+	 * @param conditions
+	 *            the ordinals of the weather conditions of the days.
+	 * @param perimeters
+	 *            the perimeters of the days, including the one after the range.
+	 * @param from
+	 *            the first day of the range, inclusive.
+	 * @param to
+	 *            the last day of the range, exclusive.
+	 * @param previousPerimeter
+	 *            the last perimeter before the range that is different from the
+	 *            one of its first day.
+	 */
+	public static void markRainPicks(final byte[] conditions, final double[] perimeters, final int from,
+			final int to, final double previousPerimeter) {
+		Assert.isTrue(from >= 0 && from <= to && to < perimeters.length && to <= conditions.length,
+				"The range must be contained in the evaluated days.");
+
+		double previous = previousPerimeter;
+		for (int d = from; d < to; d++) {
+			double perimeter = perimeters[d];
+			double next = perimeters[d + 1];
+
+			if (conditions[d] == RAIN && perimeter > next && perimeter > previous) {
+				conditions[d] = RAIN_PICK;
+			}
+
+			if (perimeter != next) {
+				previous = perimeter;
+			}
+		}
+	}
+
+}
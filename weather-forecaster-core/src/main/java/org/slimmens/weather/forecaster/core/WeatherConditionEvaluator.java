@@ -0,0 +1,456 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slimmens.weather.forecaster.core.math.ConvexHull;
+import org.slimmens.weather.forecaster.core.math.DoublePoint;
+import org.slimmens.weather.forecaster.core.math.DoublePolygon;
+import org.slimmens.weather.forecaster.core.math.IncrementalConvexHull;
+import org.slimmens.weather.forecaster.core.math.MathConstants;
+import org.slimmens.weather.forecaster.core.math.Point;
+import org.slimmens.weather.forecaster.core.math.Polygon;
+import org.springframework.util.Assert;
+
+/**
+ * A streaming evaluator of the weather conditions of a solar system, one day
+ * after the other. It keeps a window with the geometry of the current and the
+ * next day, so each day costs one new position per planet and one new
+ * polygon.
+ * <p>
+ * A rain pick is the last day of a plateau of maximum perimeter: its perimeter
+ * is greater than the next one and than the last different perimeter before
+ * it. This way, a season whose maximum lasts several days has a single pick.
+ * The days before the first one are only looked at when the first rain day
+ * that may be a pick is still on the perimeter of the first day, so a single
+ * day usually takes the evaluation of two polygons, and up to
+ * 360 more when it is in a plateau.
+ * <p>
+ * With more than three planets, the polygon of the planets is their convex
+ * hull, which is updated from the order of the previous day. Up to three
+ * planets evaluated with doubles, the coordinates are read as doubles straight
+ * from the orbits and no point or polygon is built for any day.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherConditionEvaluator {
+
+	/**
+	 * The maximum amount of days to look back for a different perimeter when
+	 * the first day is in the middle of a plateau. The chunks of a range look
+	 * back as far, so both agree on the rain pick of a plateau.
+	 */
+	static final int MAXIMUM_PLATEAU = 360;
+
+	private final GeometryMode mode;
+
+	private final Point starPosition;
+
+	private final double starX;
+
+	private final double starY;
+
+	/**
+	 * The maximum area enclosed by the planets to consider them aligned.
+	 */
+	private final double alignmentTolerance;
+
+	private final Orbit[] orbits;
+
+	/**
+	 * The convex hull of the planets, only used with more than three of them.
+	 */
+	private final IncrementalConvexHull hull;
+
+	/**
+	 * Whether the coordinates of each day are read as doubles from the orbits
+	 * instead of moving the positions of the planets.
+	 */
+	private final boolean primitive;
+
+	/**
+	 * The coordinates of the polygon being evaluated with doubles, with room
+	 * for the star.
+	 */
+	private final double[] xs;
+
+	private final double[] ys;
+
+	/**
+	 * The positions of the planets on the day after the current one, unless
+	 * the coordinates are read from the orbits.
+	 */
+	private final Point[] nextPositions;
+
+	/**
+	 * The positions of the planets on the first day, to look back from,
+	 * unless the coordinates are read from the orbits.
+	 */
+	private final Point[] startPositions;
+
+	private final long startDay;
+
+	/**
+	 * The last day before the current one with a different perimeter, or
+	 * <code>null</code> if every day since the first one has had the same
+	 * perimeter and the days before it were not looked at yet.
+	 */
+	private DayGeometry previous;
+
+	private DayGeometry current;
+
+	private DayGeometry next;
+
+	/**
+	 * The day to be returned by the next call to {@link #next()}.
+	 */
+	private long day;
+
+	/**
+	 * Constructs and initializes an evaluator of the given orbits that starts
+	 * at the given day.
+	 *
+	 * @param mode
+	 *            the {@link GeometryMode} used to evaluate the positions.
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the
+	 *            solar system.
+	 * @param startDay
+	 *            the first day to evaluate.
+	 * @param orbits
+	 *            an array of {@link Orbit} followed by the planets of the solar
+	 *            system.
+	 */
+	public WeatherConditionEvaluator(GeometryMode mode, Point starPosition, long startDay, Orbit... orbits) {
+		this(mode, starPosition, startDay, 0, orbits);
+	}
+
+	/**
+	 * Constructs and initializes an evaluator of the given orbits that starts
+	 * at the given day, where the planets are considered aligned when the area
+	 * they enclose is not greater than the given tolerance.
+	 *
+	 * @param mode
+	 *            the {@link GeometryMode} used to evaluate the positions.
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the
+	 *            solar system.
+	 * @param startDay
+	 *            the first day to evaluate.
+	 * @param alignmentTolerance
+	 *            the maximum area of aligned planets. With doubles, it is never
+	 *            lower than the {@link MathConstants#DEFAULT_AREA_TOLERANCE}.
+	 * @param orbits
+	 *            an array of {@link Orbit} followed by the planets of the solar
+	 *            system.
+	 */
+	public WeatherConditionEvaluator(GeometryMode mode, Point starPosition, long startDay, double alignmentTolerance,
+			Orbit... orbits) {
+		super();
+
+		Assert.notNull(mode, "A geometry mode is required to evaluate the weather conditions.");
+		Assert.notNull(starPosition, "A star location is required to evaluate the weather conditions.");
+		Assert.isTrue(alignmentTolerance >= 0, "The alignment tolerance must not be negative.");
+		Assert.notEmpty(orbits, "At least one orbit is required to evaluate the weather conditions.");
+
+		this.mode = mode;
+		this.starPosition = starPosition;
+		this.starX = starPosition.getX().doubleValue();
+		this.starY = starPosition.getY().doubleValue();
+		this.alignmentTolerance = mode == GeometryMode.DOUBLE
+				? Math.max(alignmentTolerance, MathConstants.DEFAULT_AREA_TOLERANCE) : alignmentTolerance;
+		this.orbits = orbits;
+		this.hull = orbits.length > 3 ? new IncrementalConvexHull() : null;
+		this.primitive = mode == GeometryMode.DOUBLE && hull == null;
+		this.xs = new double[orbits.length + 1];
+		this.ys = new double[orbits.length + 1];
+		this.startDay = startDay;
+		this.day = startDay;
+
+		if (primitive) {
+			startPositions = null;
+			nextPositions = null;
+
+			current = evaluateDouble(startDay);
+			next = evaluateDouble(startDay + 1);
+		} else {
+			startPositions = getPositionsAt(startDay);
+			nextPositions = getPositionsAt(startDay + 1);
+
+			current = evaluate(startPositions);
+			next = evaluate(nextPositions);
+		}
+	}
+
+	/**
+	 * Constructs and initializes an evaluator of the given orbits that starts
+	 * at the given positions of their planets, which are moved along their
+	 * orbits to get the positions of the other days. The first day is the day
+	 * zero.
+	 *
+	 * @param mode
+	 *            the {@link GeometryMode} used to evaluate the positions.
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the
+	 *            solar system.
+	 * @param positions
+	 *            an array of {@link Point} with the positions of the planets on
+	 *            the first day, in the same order as the orbits.
+	 * @param orbits
+	 *            an array of {@link Orbit} followed by the planets of the solar
+	 *            system.
+	 */
+	public WeatherConditionEvaluator(GeometryMode mode, Point starPosition, Point[] positions, Orbit... orbits) {
+		super();
+
+		Assert.notNull(mode, "A geometry mode is required to evaluate the weather conditions.");
+		Assert.notNull(starPosition, "A star location is required to evaluate the weather conditions.");
+		Assert.notEmpty(orbits, "At least one orbit is required to evaluate the weather conditions.");
+		Assert.isTrue(positions != null && positions.length == orbits.length,
+				"A position is required for every orbit to evaluate the weather conditions.");
+		Assert.noNullElements(positions, "The positions of the planets must not be null.");
+
+		this.mode = mode;
+		this.starPosition = starPosition;
+		this.starX = starPosition.getX().doubleValue();
+		this.starY = starPosition.getY().doubleValue();
+		this.alignmentTolerance = mode == GeometryMode.DOUBLE ? MathConstants.DEFAULT_AREA_TOLERANCE : 0;
+		this.orbits = orbits;
+		this.hull = orbits.length > 3 ? new IncrementalConvexHull() : null;
+		this.primitive = false;
+		this.xs = new double[orbits.length + 1];
+		this.ys = new double[orbits.length + 1];
+		this.startDay = 0;
+		this.day = 0;
+
+		startPositions = positions.clone();
+		nextPositions = new Point[orbits.length];
+		for (int i = 0; i < orbits.length; i++) {
+			nextPositions[i] = orbits[i].getNextPosition(positions[i]);
+		}
+
+		current = evaluate(startPositions);
+		next = evaluate(nextPositions);
+	}
+
+	/**
+	 * Returns the weather condition of the current day and moves to the next
+	 * one.
+	 *
+	 * @return the {@link WeatherCondition} of the current day.
+	 */
+	public WeatherCondition next() {
+		WeatherCondition condition = current.condition;
+		if (condition == WeatherCondition.RAIN && current.comparePerimeter(next) > 0
+				&& current.comparePerimeter(getPrevious()) > 0) {
+			condition = WeatherCondition.RAIN_PICK;
+		}
+
+		if (current.comparePerimeter(next) != 0) {
+			previous = current;
+		}
+
+		current = next;
+		if (primitive) {
+			next = evaluateDouble(day + 2);
+		} else {
+			for (int i = 0; i < orbits.length; i++) {
+				nextPositions[i] = orbits[i].getNextPosition(nextPositions[i]);
+			}
+
+			next = evaluate(nextPositions);
+		}
+
+		day++;
+
+		return condition;
+	}
+
+	/**
+	 * Returns the day whose condition will be returned by the next call to
+	 * {@link #next()}.
+	 *
+	 * @return the current day.
+	 */
+	public long getDay() {
+		return day;
+	}
+
+	/*
+	 * Returns the last day before the current one with a different perimeter,
+	 * walking back from the first day the first time it is required.
+	 */
+	private DayGeometry getPrevious() {
+		if (previous == null && primitive) {
+			previous = evaluateDouble(startDay - 1);
+			for (int days = 1; days < MAXIMUM_PLATEAU && previous.comparePerimeter(current) == 0; days++) {
+				previous = evaluateDouble(startDay - 1 - days);
+			}
+		} else if (previous == null) {
+			Point[] positions = new Point[orbits.length];
+			for (int i = 0; i < orbits.length; i++) {
+				positions[i] = orbits[i].getPreviousPosition(startPositions[i]);
+			}
+
+			previous = evaluate(positions);
+			for (int days = 1; days < MAXIMUM_PLATEAU && previous.comparePerimeter(current) == 0; days++) {
+				for (int i = 0; i < orbits.length; i++) {
+					positions[i] = orbits[i].getPreviousPosition(positions[i]);
+				}
+
+				previous = evaluate(positions);
+			}
+		}
+
+		return previous;
+	}
+
+	private Point[] getPositionsAt(long day) {
+		Point[] positions = new Point[orbits.length];
+		for (int i = 0; i < orbits.length; i++) {
+			positions[i] = orbits[i].getPositionAt(day);
+		}
+
+		return positions;
+	}
+
+	private DayGeometry evaluate(Point[] positions) {
+		List<Point> outline = getOutline(positions);
+		if (mode == GeometryMode.DOUBLE) {
+			return evaluateDouble(outline);
+		}
+
+		Polygon polygon = new Polygon(outline);
+		BigDecimal perimeter = polygon.getPerimeter();
+
+		// If the polygon area is empty, the planets are align, and if it still
+		// being empty when adding the star, the system has drought.
+		if (polygon.isEmpty(alignmentTolerance)) {
+			return new DayGeometry(new Polygon(addStar(outline)).isEmpty(alignmentTolerance)
+					? WeatherCondition.DROUGHT : WeatherCondition.OPTIMAL_PRESSURE_AND_TEMP, perimeter, 0);
+		}
+
+		return new DayGeometry(polygon.contains(starPosition) ? WeatherCondition.RAIN : WeatherCondition.NONE,
+				perimeter, 0);
+	}
+
+	/*
+	 * Evaluates the outline of the planets with doubles, which is their convex
+	 * hull when there are more than three of them.
+	 */
+	private DayGeometry evaluateDouble(List<Point> outline) {
+		int size = setCoordinates(outline);
+		if (hull == null) {
+			return evaluateDouble(size);
+		}
+
+		double perimeter = DoublePolygon.getPerimeter(xs, ys, size);
+		if (DoublePolygon.getArea(xs, ys, size) <= alignmentTolerance) {
+			int starSize = setCoordinates(addStar(outline));
+			return new DayGeometry(DoublePolygon.getArea(xs, ys, starSize) <= alignmentTolerance
+					? WeatherCondition.DROUGHT : WeatherCondition.OPTIMAL_PRESSURE_AND_TEMP, null, perimeter);
+		}
+
+		return new DayGeometry(DoublePolygon.contains(xs, ys, size, starX, starY) ? WeatherCondition.RAIN
+				: WeatherCondition.NONE, null, perimeter);
+	}
+
+	/*
+	 * Evaluates the given day with the coordinates read from the orbits.
+	 */
+	private DayGeometry evaluateDouble(long day) {
+		for (int i = 0; i < orbits.length; i++) {
+			DoublePoint position = orbits[i].getDoublePositionAt(day);
+			xs[i] = position.getX();
+			ys[i] = position.getY();
+		}
+
+		return evaluateDouble(orbits.length);
+	}
+
+	/*
+	 * Evaluates the polygon of the first coordinates, formed by up to three
+	 * planets in the order of the orbits.
+	 */
+	private DayGeometry evaluateDouble(int size) {
+		double perimeter = DoublePolygon.getPerimeter(xs, ys, size);
+
+		if (DoublePolygon.getArea(xs, ys, size) <= alignmentTolerance) {
+			xs[size] = starX;
+			ys[size] = starY;
+
+			return new DayGeometry(DoublePolygon.getArea(xs, ys, size + 1) <= alignmentTolerance
+					? WeatherCondition.DROUGHT : WeatherCondition.OPTIMAL_PRESSURE_AND_TEMP, null, perimeter);
+		}
+
+		return new DayGeometry(DoublePolygon.contains(xs, ys, size, starX, starY) ? WeatherCondition.RAIN
+				: WeatherCondition.NONE, null, perimeter);
+	}
+
+	/*
+	 * Returns the polygon formed by the planets. Up to three planets, it is
+	 * formed in the order of the orbits, but with more planets that order
+	 * would self-intersect, so the polygon is their convex hull.
+	 */
+	private List<Point> getOutline(Point[] positions) {
+		List<Point> points = new ArrayList<>(positions.length + 1);
+		for (Point position : positions) {
+			points.add(position);
+		}
+
+		return hull == null ? points : hull.update(points);
+	}
+
+	private List<Point> addStar(List<Point> outline) {
+		List<Point> points = new ArrayList<>(outline);
+		points.add(starPosition);
+
+		return hull == null ? points : ConvexHull.compute(points);
+	}
+
+	private int setCoordinates(List<Point> points) {
+		for (int i = 0; i < points.size(); i++) {
+			xs[i] = points.get(i).getX().doubleValue();
+			ys[i] = points.get(i).getY().doubleValue();
+		}
+
+		return points.size();
+	}
+
+	/**
+	 * The geometry of the planets on a single day, which is all the window
+	 * needs to remember about it.
+	 */
+	private static class DayGeometry {
+
+		/**
+		 * The condition of the day, without telling rain picks apart.
+		 */
+		private final WeatherCondition condition;
+
+		/**
+		 * The perimeter of the planets, or <code>null</code> if it was
+		 * evaluated with doubles.
+		 */
+		private final BigDecimal perimeter;
+
+		private final double doublePerimeter;
+
+		private DayGeometry(WeatherCondition condition, BigDecimal perimeter, double doublePerimeter) {
+			this.condition = condition;
+			this.perimeter = perimeter;
+			this.doublePerimeter = doublePerimeter;
+		}
+
+		private int comparePerimeter(DayGeometry other) {
+			if (perimeter != null) {
+				return perimeter.compareTo(other.perimeter);
+			}
+
+			return Double.compare(doublePerimeter, other.doublePerimeter);
+		}
+
+	}
+
+}
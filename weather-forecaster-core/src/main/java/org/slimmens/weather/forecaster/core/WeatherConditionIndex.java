@@ -0,0 +1,422 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.springframework.util.Assert;
+
+/**
+ * A compact and immutable index of the weather conditions of a range of
+ * consecutive days. The condition of each day is kept as a single byte with
+ * its ordinal, and the days of each condition are kept as a {@link BitSet}, so
+ * both looking up a day and finding the days of a condition take no more than
+ * a few array accesses.
+ * <p>
+ * The ordinals may live outside of the heap, like in a file mapped by
+ * {@link WeatherForecastFile}, so they are never copied. They are split in
+ * chunks of {@value #CHUNK_DAYS} days aligned to multiples of that amount,
+ * which are shared between the indexes of overlapping days. The sets of days
+ * are only built the first time they are required.
+ * <p>
+ * A rolling window of days is kept by dropping the days before its start with
+ * {@link #from(long)} and adding the new ones with
+ * {@link #append(WeatherCondition[])}. Both only touch the chunks at the ends
+ * of the window, so only the new days have to be computed and copied.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherConditionIndex {
+
+	/**
+	 * The amount of days of a chunk of ordinals.
+	 */
+	public static final int CHUNK_DAYS = 1024;
+
+	private static final WeatherCondition[] CONDITIONS = WeatherCondition.values();
+
+	/**
+	 * The first day of the index.
+	 */
+	private final long firstDay;
+
+	/**
+	 * The ordinals of the conditions, one per day from the position zero of
+	 * each chunk. The first chunk starts at the first day and every other one
+	 * at a multiple of {@link #CHUNK_DAYS}.
+	 */
+	private final ByteBuffer[] chunks;
+
+	private final int horizon;
+
+	/**
+	 * The days of each condition after the first day, by ordinal, built on
+	 * demand.
+	 */
+	private final BitSet[] days = new BitSet[CONDITIONS.length];
+
+	/**
+	 * Constructs and initializes an index of the given conditions, starting at
+	 * the day zero.
+	 *
+	 * @param conditions
+	 *            an array of {@link WeatherCondition} with one condition per
+	 *            day. The array must not be <code>null</code> and must not
+	 *            contain <code>null</code> elements.
+	 */
+	public WeatherConditionIndex(WeatherCondition[] conditions) {
+		this(0, conditions);
+	}
+
+	/**
+	 * Constructs and initializes an index of the given conditions, starting at
+	 * the given day.
+	 *
+	 * @param firstDay
+	 *            the day of the first condition.
+	 * @param conditions
+	 *            an array of {@link WeatherCondition} with one condition per
+	 *            day. The array must not be <code>null</code> and must not
+	 *            contain <code>null</code> elements.
+	 */
+	public WeatherConditionIndex(long firstDay, WeatherCondition[] conditions) {
+		this(firstDay, toOrdinals(conditions));
+	}
+
+	/**
+	 * Constructs and initializes an index of the condition ordinals between
+	 * the position and the limit of the given buffer, starting at the day zero,
+	 * without copying them.
+	 *
+	 * @param conditions
+	 *            a {@link ByteBuffer} with the ordinal of a
+	 *            {@link WeatherCondition} per day. The buffer must not be
+	 *            <code>null</code> and must not be modified afterwards.
+	 */
+	public WeatherConditionIndex(ByteBuffer conditions) {
+		this(0, conditions);
+	}
+
+	/**
+	 * Constructs and initializes an index of the condition ordinals between
+	 * the position and the limit of the given buffer, starting at the given
+	 * day, without copying them.
+	 *
+	 * @param firstDay
+	 *            the day of the first condition.
+	 * @param conditions
+	 *            a {@link ByteBuffer} with the ordinal of a
+	 *            {@link WeatherCondition} per day. The buffer must not be
+	 *            <code>null</code> and must not be modified afterwards.
+	 */
+	public WeatherConditionIndex(long firstDay, ByteBuffer conditions) {
+		this(firstDay, split(firstDay, conditions));
+	}
+
+	private WeatherConditionIndex(long firstDay, ByteBuffer[] chunks) {
+		super();
+
+		long horizon = 0;
+		for (ByteBuffer chunk : chunks) {
+			horizon += chunk.capacity();
+		}
+
+		Assert.isTrue(horizon <= Integer.MAX_VALUE, "The index is too long.");
+
+		this.firstDay = firstDay;
+		this.chunks = chunks;
+		this.horizon = (int) horizon;
+	}
+
+	/**
+	 * Creates an index of the whole horizon of the given forecast.
+	 *
+	 * @param forecast
+	 *            a {@link WeatherForecast} whose horizon fits in an array.
+	 * @return a new {@link WeatherConditionIndex} of the forecast.
+	 */
+	public static WeatherConditionIndex of(WeatherForecast forecast) {
+		Assert.notNull(forecast, "A forecast is required to create a new index.");
+		Assert.isTrue(forecast.getHorizon() <= Integer.MAX_VALUE, "The horizon of the forecast is too long to index.");
+
+		return new WeatherConditionIndex(forecast.getConditions(0, (int) forecast.getHorizon()));
+	}
+
+	/**
+	 * Check if the given day is covered by this index.
+	 *
+	 * @param day
+	 *            the day to check.
+	 * @return <code>true</code> if the index has a condition for the day and
+	 *         <code>false</code> if not.
+	 */
+	public boolean contains(long day) {
+		return day >= firstDay && day - firstDay < horizon;
+	}
+
+	/**
+	 * Returns the weather condition of the given day.
+	 *
+	 * @param day
+	 *            the day to get the condition for, between the first and the
+	 *            end day of the index.
+	 * @return the {@link WeatherCondition} of the given day.
+	 */
+	public WeatherCondition getCondition(long day) {
+		Assert.isTrue(contains(day), "The day must be in the horizon of the index.");
+
+		return CONDITIONS[chunks[getChunk(day)].get(getChunkOffset(day))];
+	}
+
+	/**
+	 * Returns the first day with the given condition from the given one.
+	 *
+	 * @param condition
+	 *            the {@link WeatherCondition} to look for.
+	 * @param fromDay
+	 *            the first day to look at.
+	 * @return the first day with the condition, or <code>-1</code> if there is
+	 *         none until the end day.
+	 */
+	public long getNextDay(WeatherCondition condition, long fromDay) {
+		Assert.notNull(condition, "A condition is required to look for its days.");
+
+		if (fromDay >= getEndDay()) {
+			return -1;
+		}
+
+		int day = getDaySet(condition).nextSetBit((int) Math.max(fromDay - firstDay, 0));
+		return day < 0 ? -1 : firstDay + day;
+	}
+
+	/**
+	 * Returns the days with the given condition, counted from the first day of
+	 * the index.
+	 *
+	 * @param condition
+	 *            the {@link WeatherCondition} to look for.
+	 * @return a copy of the {@link BitSet} of the days with the condition.
+	 */
+	public BitSet getDays(WeatherCondition condition) {
+		Assert.notNull(condition, "A condition is required to look for its days.");
+
+		return (BitSet) getDaySet(condition).clone();
+	}
+
+	/**
+	 * Returns the amount of days with the given condition.
+	 *
+	 * @param condition
+	 *            the {@link WeatherCondition} to count.
+	 * @return the amount of days with the condition.
+	 */
+	public int getDayCount(WeatherCondition condition) {
+		Assert.notNull(condition, "A condition is required to count its days.");
+
+		return getDaySet(condition).cardinality();
+	}
+
+	/**
+	 * Returns an index of the days of this one from the given day, sharing its
+	 * ordinals.
+	 *
+	 * @param day
+	 *            the new first day. Days before the first day of this index
+	 *            are ignored.
+	 * @return a {@link WeatherConditionIndex} without the days before the
+	 *         given one.
+	 */
+	public WeatherConditionIndex from(long day) {
+		if (day <= firstDay) {
+			return this;
+		}
+
+		if (day >= getEndDay()) {
+			return new WeatherConditionIndex(getEndDay(), new ByteBuffer[0]);
+		}
+
+		int chunk = getChunk(day);
+		ByteBuffer[] remainingChunks = Arrays.copyOfRange(chunks, chunk, chunks.length);
+		remainingChunks[0] = slice(chunks[chunk], getChunkOffset(day), chunks[chunk].capacity());
+
+		return new WeatherConditionIndex(day, remainingChunks);
+	}
+
+	/**
+	 * Returns an index of the days of this one followed by the given ones.
+	 * Only the last chunk of this index is copied, and the other ones are
+	 * shared with the new index.
+	 *
+	 * @param conditions
+	 *            an array of {@link WeatherCondition} with one condition per
+	 *            day from the end day of this index.
+	 * @return a new {@link WeatherConditionIndex} with the appended days.
+	 */
+	public WeatherConditionIndex append(WeatherCondition[] conditions) {
+		Assert.notNull(conditions, "An array of conditions is required to extend an index.");
+		Assert.isTrue((long) horizon + conditions.length <= Integer.MAX_VALUE, "The extended index is too long.");
+
+		if (chunks.length == 0) {
+			return new WeatherConditionIndex(firstDay, toOrdinals(conditions));
+		}
+
+		ByteBuffer lastChunk = chunks[chunks.length - 1];
+		ByteBuffer ordinals = ByteBuffer.allocate(lastChunk.capacity() + conditions.length);
+		ordinals.put(lastChunk.duplicate());
+		ordinals.put(toOrdinals(conditions));
+		ordinals.flip();
+
+		ByteBuffer[] tailChunks = split(getEndDay() - lastChunk.capacity(), ordinals);
+		ByteBuffer[] extendedChunks = Arrays.copyOf(chunks, chunks.length - 1 + tailChunks.length);
+		System.arraycopy(tailChunks, 0, extendedChunks, chunks.length - 1, tailChunks.length);
+
+		return new WeatherConditionIndex(firstDay, extendedChunks);
+	}
+
+	/**
+	 * Returns the ordinals of the conditions of all the days of this index.
+	 *
+	 * @return a read-only {@link ByteBuffer} with the ordinals of this index.
+	 * @see #getOrdinals(long, long)
+	 */
+	public ByteBuffer getOrdinals() {
+		return getOrdinals(firstDay, getEndDay());
+	}
+
+	/**
+	 * Returns the ordinals of the conditions of a range of days, one per day
+	 * from the position zero. The ordinals are shared when the range lies in
+	 * a single chunk, and copied otherwise.
+	 *
+	 * @param fromDay
+	 *            the first day of the range.
+	 * @param toDay
+	 *            the day after the last one of the range.
+	 * @return a read-only {@link ByteBuffer} with the ordinals of the range.
+	 */
+	public ByteBuffer getOrdinals(long fromDay, long toDay) {
+		Assert.isTrue(fromDay >= firstDay && fromDay <= toDay && toDay <= getEndDay(),
+				"The range must be in the horizon of the index.");
+
+		if (fromDay == toDay) {
+			return ByteBuffer.allocate(0).asReadOnlyBuffer();
+		}
+
+		int firstChunk = getChunk(fromDay);
+		int lastChunk = getChunk(toDay - 1);
+		if (firstChunk == lastChunk) {
+			return slice(chunks[firstChunk], getChunkOffset(fromDay), getChunkOffset(toDay - 1) + 1);
+		}
+
+		ByteBuffer ordinals = ByteBuffer.allocate((int) (toDay - fromDay));
+		ordinals.put(slice(chunks[firstChunk], getChunkOffset(fromDay), chunks[firstChunk].capacity()));
+		for (int chunk = firstChunk + 1; chunk < lastChunk; chunk++) {
+			ordinals.put(chunks[chunk].duplicate());
+		}
+
+		ordinals.put(slice(chunks[lastChunk], 0, getChunkOffset(toDay - 1) + 1));
+		ordinals.flip();
+
+		return ordinals.asReadOnlyBuffer();
+	}
+
+	public long getFirstDay() {
+		return firstDay;
+	}
+
+	/**
+	 * Returns the day after the last one of this index.
+	 *
+	 * @return the end day, exclusive.
+	 */
+	public long getEndDay() {
+		return firstDay + horizon;
+	}
+
+	public int getHorizon() {
+		return horizon;
+	}
+
+	private synchronized BitSet getDaySet(WeatherCondition condition) {
+		int ordinal = condition.ordinal();
+		if (days[ordinal] == null) {
+			BitSet daySet = new BitSet(horizon);
+			int day = 0;
+			for (ByteBuffer chunk : chunks) {
+				for (int i = 0; i < chunk.capacity(); i++, day++) {
+					if (chunk.get(i) == ordinal) {
+						daySet.set(day);
+					}
+				}
+			}
+
+			days[ordinal] = daySet;
+		}
+
+		return days[ordinal];
+	}
+
+	/*
+	 * Returns the position of the chunk of the given day.
+	 */
+	private int getChunk(long day) {
+		return (int) (day / CHUNK_DAYS - firstDay / CHUNK_DAYS);
+	}
+
+	/*
+	 * Returns the position of the given day in its chunk, which starts at the
+	 * first day of the index or at the last multiple of the chunk size.
+	 */
+	private int getChunkOffset(long day) {
+		return (int) (day - Math.max(firstDay, day - day % CHUNK_DAYS));
+	}
+
+	/*
+	 * Splits the ordinals between the position and the limit of the given
+	 * buffer in read-only views of aligned chunks, starting at the given day.
+	 */
+	private static ByteBuffer[] split(long firstDay, ByteBuffer conditions) {
+		Assert.isTrue(firstDay >= 0, "The first day of an index must not be negative.");
+		Assert.notNull(conditions, "A buffer of conditions is required to create a new index.");
+
+		ByteBuffer ordinals = conditions.slice();
+		int horizon = ordinals.capacity();
+		int firstChunkDays = (int) Math.min(CHUNK_DAYS - firstDay % CHUNK_DAYS, horizon);
+		int chunkCount = horizon == 0 ? 0 : 1 + (horizon - firstChunkDays + CHUNK_DAYS - 1) / CHUNK_DAYS;
+
+		ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+		for (int chunk = 0, start = 0; chunk < chunkCount; chunk++) {
+			int end = chunk == 0 ? firstChunkDays : Math.min(start + CHUNK_DAYS, horizon);
+			chunks[chunk] = slice(ordinals, start, end);
+			start = end;
+		}
+
+		return chunks;
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int start, int end) {
+		ByteBuffer view = buffer.duplicate();
+		view.limit(end);
+		view.position(start);
+
+		return view.slice().asReadOnlyBuffer();
+	}
+
+	private static ByteBuffer toOrdinals(WeatherCondition[] conditions) {
+		Assert.notNull(conditions, "An array of conditions is required to create a new index.");
+		Assert.noNullElements(conditions, "Every day of the index must have a condition.");
+
+		byte[] ordinals = new byte[conditions.length];
+		for (int day = 0; day < conditions.length; day++) {
+			ordinals[day] = (byte) conditions[day].ordinal();
+		}
+
+		return ByteBuffer.wrap(ordinals);
+	}
+
+	@Override
+	public String toString() {
+		return "WeatherConditionIndex [firstDay=" + firstDay + ", horizon=" + horizon + "]";
+	}
+
+}
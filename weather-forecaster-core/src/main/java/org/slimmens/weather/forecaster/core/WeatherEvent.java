@@ -0,0 +1,79 @@
+package org.slimmens.weather.forecaster.core;
+
+/**
+ * A weather condition of a solar system over a continuous interval of time,
+ * measured in days since the initial position of the orbits. Alignments are
+ * instantaneous, so they start and end at the same time.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherEvent {
+
+	/**
+	 * The weather condition of this <code>WeatherEvent</code>.
+	 */
+	private final WeatherCondition condition;
+
+	/**
+	 * The time when this <code>WeatherEvent</code> starts.
+	 */
+	private final double start;
+
+	/**
+	 * The time when this <code>WeatherEvent</code> ends.
+	 */
+	private final double end;
+
+	/**
+	 * The time when this <code>WeatherEvent</code> reaches its maximum
+	 * intensity, which for rain is the maximum perimeter of the planets.
+	 */
+	private final double peak;
+
+	/**
+	 * Constructs and initializes a weather event with the given condition and
+	 * times.
+	 *
+	 * @param condition
+	 *            the {@link WeatherCondition} of the event.
+	 * @param start
+	 *            the time when the event starts.
+	 * @param end
+	 *            the time when the event ends.
+	 * @param peak
+	 *            the time when the event reaches its maximum intensity.
+	 */
+	public WeatherEvent(WeatherCondition condition, double start, double end, double peak) {
+		super();
+		this.condition = condition;
+		this.start = start;
+		this.end = end;
+		this.peak = peak;
+	}
+
+	public boolean isInstantaneous() {
+		return start == end;
+	}
+
+	public WeatherCondition getCondition() {
+		return condition;
+	}
+
+	public double getStart() {
+		return start;
+	}
+
+	public double getEnd() {
+		return end;
+	}
+
+	public double getPeak() {
+		return peak;
+	}
+
+	@Override
+	public String toString() {
+		return "WeatherEvent [condition=" + condition + ", start=" + start + ", end=" + end + ", peak=" + peak + "]";
+	}
+
+}
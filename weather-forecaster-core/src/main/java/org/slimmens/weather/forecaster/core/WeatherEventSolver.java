@@ -0,0 +1,505 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.function.DoubleUnaryOperator;
+
+import org.springframework.util.Assert;
+
+/**
+ * A useful helper class to find the weather events of a solar system in
+ * continuous time, instead of sampling its condition day by day. The planets
+ * follow {@link CircularOrbit} paths centered on the star, so their positions
+ * are trigonometric functions of the time and every event can be solved from
+ * them:
+ *
+ * <ul>
+ * <li>The droughts are the instants when every pair of planets is aligned with
+ * the star, which have a closed form.</li>
+ * <li>The optimal pressure and temperature instants are the roots of the
+ * signed area of the planets, found by root-finding. A root where the area
+ * only touches zero without changing its sign is found as a minimum of its
+ * absolute value that is within the alignment tolerance.</li>
+ * <li>The rain seasons are bounded by the instants when any side of the
+ * polygon crosses the star, which also have a closed form. The peak of each
+ * season is the maximum of the perimeter inside it.</li>
+ * </ul>
+ *
+ * @author Nicols Martn
+ */
+public class WeatherEventSolver {
+
+	/*
+	 * The precision in days of the solved instants.
+	 */
+	private static final double TIME_TOLERANCE = 1e-9;
+
+	/*
+	 * Two instants closer than this amount of days are the same event.
+	 */
+	private static final double EVENT_TOLERANCE = 1e-6;
+
+	/*
+	 * The minimum step in days of the root isolation. Pairs of roots closer
+	 * than this step may be missed, unless the area only touches zero between
+	 * them, which is looked for in every step this short.
+	 */
+	private static final double MINIMUM_STEP = 1e-3;
+
+	/*
+	 * The sine of the angle between two planets below which they are
+	 * considered aligned with the star.
+	 */
+	private static final double ALIGNMENT_TOLERANCE = 1e-9;
+
+	private static final int MAXIMUM_ITERATIONS = 200;
+
+	private static final double GOLDEN_SECTION = (Math.sqrt(5) - 1) / 2;
+
+	/**
+	 * The distance of each planet to the star.
+	 */
+	private final double[] distances;
+
+	/**
+	 * The angular velocity of each planet, in radians per day.
+	 */
+	private final double[] velocities;
+
+	/**
+	 * The angle of each planet at the time zero, in radians.
+	 */
+	private final double[] phases;
+
+	/**
+	 * The maximum absolute area of the planets to consider them aligned,
+	 * which is the alignment tolerance scaled to their distances.
+	 */
+	private final double areaTolerance;
+
+	private WeatherEventSolver(double[] distances, double[] velocities, double[] phases) {
+		super();
+
+		this.distances = distances;
+		this.velocities = velocities;
+		this.phases = phases;
+
+		double scale = 0;
+		for (int i = 0; i < distances.length; i++) {
+			scale += distances[i] * distances[(i + 1) % distances.length];
+		}
+
+		this.areaTolerance = ALIGNMENT_TOLERANCE * scale / 2;
+	}
+
+	/**
+	 * Returns the weather events of a solar system of three planets between the
+	 * time zero and the given horizon, sorted by their start. The result
+	 * contains the instants of <code>DROUGHT</code> and
+	 * <code>OPTIMAL_PRESSURE_AND_TEMP</code>, and the intervals of
+	 * <code>RAIN</code> with the instant of their peak.
+	 *
+	 * @param horizon
+	 *            the amount of days to solve.
+	 * @param orbits
+	 *            an array of three {@link CircularOrbit} followed by the
+	 *            planets of the solar system.
+	 * @return a {@link List} of {@link WeatherEvent} sorted by start.
+	 */
+	public static List<WeatherEvent> solve(final double horizon, final CircularOrbit... orbits) {
+		Assert.notNull(orbits, "The orbits are required to solve the weather events.");
+		Assert.isTrue(orbits.length == 3, "Exactly three orbits are required to solve the weather events.");
+		Assert.isTrue(horizon >= 0, "The horizon of the weather events must not be negative.");
+
+		double[] distances = new double[orbits.length];
+		double[] velocities = new double[orbits.length];
+		double[] phases = new double[orbits.length];
+		for (int i = 0; i < orbits.length; i++) {
+			distances[i] = orbits[i].getStarDistance().doubleValue();
+			velocities[i] = orbits[i].getAngularVelocity();
+			phases[i] = orbits[i].getInitialPosition().getAngle().toRadians();
+		}
+
+		return solve(horizon, distances, velocities, phases);
+	}
+
+	/*
+	 * Solves the weather events of three planets given by their distances to
+	 * the star, angular velocities in radians per day and angles at the time
+	 * zero in radians, which may be any ones and not only the ones of an
+	 * orbit starting at the angle zero.
+	 */
+	static List<WeatherEvent> solve(final double horizon, final double[] distances, final double[] velocities,
+			final double[] phases) {
+		WeatherEventSolver solver = new WeatherEventSolver(distances, velocities, phases);
+
+		List<WeatherEvent> events = new ArrayList<>();
+		solver.addAlignments(horizon, events);
+		solver.addRainSeasons(horizon, events);
+
+		events.sort(Comparator.comparingDouble(WeatherEvent::getStart));
+		return events;
+	}
+
+	private void addAlignments(double horizon, List<WeatherEvent> events) {
+		List<Double> droughts = getDroughtInstants(horizon);
+		if (droughts == null) {
+			events.add(new WeatherEvent(WeatherCondition.DROUGHT, 0, horizon, 0));
+			return;
+		}
+
+		for (double drought : droughts) {
+			events.add(new WeatherEvent(WeatherCondition.DROUGHT, drought, drought, drought));
+		}
+
+		double lipschitz = getAreaLipschitz();
+		if (lipschitz == 0) {
+			if (getArea(0) == 0) {
+				events.add(new WeatherEvent(WeatherCondition.OPTIMAL_PRESSURE_AND_TEMP, 0, horizon, 0));
+			}
+
+			return;
+		}
+
+		List<Double> alignments = new ArrayList<>();
+
+		double time = 0;
+		double area = getArea(time);
+		if (area == 0) {
+			alignments.add(time);
+		}
+
+		// The area can not reach zero before |area| / lipschitz days, so the
+		// step is safe as long as it is longer than the minimum one. A shorter
+		// step may hide a root where the area only touches zero, which has no
+		// change of sign to bracket, so it is looked for at the minimum of the
+		// absolute area instead.
+		while (time < horizon) {
+			double step = Math.abs(area) / lipschitz;
+			double nextTime = Math.min(horizon, time + Math.max(step, MINIMUM_STEP));
+			double nextArea = getArea(nextTime);
+
+			if (nextArea == 0) {
+				addAlignment(alignments, nextTime);
+			} else if (area != 0 && (area < 0) != (nextArea < 0)) {
+				addAlignment(alignments, findRoot(this::getArea, time, area, nextTime, nextArea));
+			} else if (step < MINIMUM_STEP) {
+				OptionalDouble tangent = findTangentRoot(time, nextTime, area);
+				if (tangent.isPresent()) {
+					addAlignment(alignments, tangent.getAsDouble());
+				}
+			}
+
+			time = nextTime;
+			area = nextArea;
+		}
+
+		int drought = 0;
+		for (double alignment : alignments) {
+			while (drought < droughts.size() && droughts.get(drought) < alignment - EVENT_TOLERANCE) {
+				drought++;
+			}
+
+			if (drought < droughts.size() && Math.abs(droughts.get(drought) - alignment) <= EVENT_TOLERANCE) {
+				continue;
+			}
+
+			events.add(new WeatherEvent(WeatherCondition.OPTIMAL_PRESSURE_AND_TEMP, alignment, alignment, alignment));
+		}
+	}
+
+	/*
+	 * Adds an alignment unless it is the same event as the previous one, as a
+	 * root where the area only touches zero may be found from two steps.
+	 */
+	private static void addAlignment(List<Double> alignments, double alignment) {
+		if (alignments.isEmpty() || alignment - alignments.get(alignments.size() - 1) > EVENT_TOLERANCE) {
+			alignments.add(alignment);
+		}
+	}
+
+	/*
+	 * Returns the instant between the given ones where the absolute area has a
+	 * minimum within the tolerance, if there is one. The area keeps its sign
+	 * in the interval, so that minimum is where its derivative changes sign.
+	 */
+	private OptionalDouble findTangentRoot(double lower, double upper, double area) {
+		double lowerSlope = getAreaDerivative(lower);
+		double upperSlope = getAreaDerivative(upper);
+		if (lowerSlope * area >= 0 || upperSlope * area < 0) {
+			return OptionalDouble.empty();
+		}
+
+		double time = upperSlope == 0 ? upper
+				: findRoot(this::getAreaDerivative, lower, lowerSlope, upper, upperSlope);
+		return Math.abs(getArea(time)) <= areaTolerance ? OptionalDouble.of(time) : OptionalDouble.empty();
+	}
+
+	/*
+	 * Returns the sorted instants when every planet is aligned with the star
+	 * and the first one, or null if they are always aligned.
+	 */
+	private List<Double> getDroughtInstants(double horizon) {
+		int reference = -1;
+		for (int i = 1; i < velocities.length; i++) {
+			double relativeVelocity = Math.abs(velocities[i] - velocities[0]);
+			if (relativeVelocity != 0
+					&& (reference < 0 || relativeVelocity < Math.abs(velocities[reference] - velocities[0]))) {
+				reference = i;
+			}
+		}
+
+		if (reference < 0) {
+			return isAlignedWithStar(0) ? null : new ArrayList<>();
+		}
+
+		List<Double> droughts = new ArrayList<>();
+		for (double instant : getCrossingInstants(0, reference, horizon)) {
+			if (isAlignedWithStar(instant)) {
+				droughts.add(instant);
+			}
+		}
+
+		return droughts;
+	}
+
+	private boolean isAlignedWithStar(double time) {
+		for (int i = 1; i < velocities.length; i++) {
+			if (Math.abs(Math.sin(getAngle(i, time) - getAngle(0, time))) > ALIGNMENT_TOLERANCE) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/*
+	 * Returns the sorted instants when the given planets are aligned with the
+	 * star, which happens every time the angle between them is a multiple of
+	 * a half rotation.
+	 */
+	private List<Double> getCrossingInstants(int first, int second, double horizon) {
+		List<Double> instants = new ArrayList<>();
+
+		double relativeVelocity = velocities[second] - velocities[first];
+		if (relativeVelocity == 0) {
+			return instants;
+		}
+
+		double relativePhase = phases[second] - phases[first];
+		double halfRotationTime = Math.PI / Math.abs(relativeVelocity);
+
+		// First instant at or after zero when the relative angle is a multiple
+		// of a half rotation.
+		double offset = -relativePhase / relativeVelocity;
+		double instant = offset - Math.floor(offset / halfRotationTime) * halfRotationTime;
+		if (instant > halfRotationTime - TIME_TOLERANCE) {
+			instant -= halfRotationTime;
+		}
+
+		for (long k = 0; instant + k * halfRotationTime <= horizon; k++) {
+			instants.add(Math.max(0, instant + k * halfRotationTime));
+		}
+
+		return instants;
+	}
+
+	private void addRainSeasons(double horizon, List<WeatherEvent> events) {
+		List<Double> boundaries = new ArrayList<>();
+		boundaries.add(0d);
+		boundaries.add(horizon);
+
+		for (int i = 0; i < velocities.length; i++) {
+			boundaries.addAll(getCrossingInstants(i, (i + 1) % velocities.length, horizon));
+		}
+
+		boundaries.sort(Double::compare);
+
+		double seasonStart = -1;
+		double previous = 0;
+		for (double boundary : boundaries) {
+			if (boundary - previous <= EVENT_TOLERANCE) {
+				continue;
+			}
+
+			boolean inside = containsStar((previous + boundary) / 2);
+			if (inside && seasonStart < 0) {
+				seasonStart = previous;
+			} else if (!inside && seasonStart >= 0) {
+				events.add(newRainSeason(seasonStart, previous));
+				seasonStart = -1;
+			}
+
+			// A drought flattens the polygon over the star, so it splits the
+			// season even if the star is inside at both sides of it.
+			if (seasonStart >= 0 && boundary < horizon && isAlignedWithStar(boundary)) {
+				events.add(newRainSeason(seasonStart, boundary));
+				seasonStart = -1;
+			}
+
+			previous = boundary;
+		}
+
+		if (seasonStart >= 0) {
+			events.add(newRainSeason(seasonStart, horizon));
+		}
+	}
+
+	private WeatherEvent newRainSeason(double start, double end) {
+		// The perimeter can not have two maximums closer than a quarter of the
+		// fastest relative rotation, so sampling at that step brackets the
+		// highest one.
+		double step = Math.PI / 2 / getMaximumRelativeVelocity();
+		int samples = (int) Math.min(Integer.MAX_VALUE - 1, Math.ceil((end - start) / step));
+
+		double peak = start;
+		double peakPerimeter = getPerimeter(start);
+		for (int i = 1; i <= samples; i++) {
+			double time = i == samples ? end : start + i * step;
+			double perimeter = getPerimeter(time);
+			if (perimeter > peakPerimeter) {
+				peak = time;
+				peakPerimeter = perimeter;
+			}
+		}
+
+		peak = findPerimeterMaximum(Math.max(start, peak - step), Math.min(end, peak + step));
+		return new WeatherEvent(WeatherCondition.RAIN, start, end, peak);
+	}
+
+	/*
+	 * Illinois variant of the false position method, which keeps the root of
+	 * the given function bracketed and converges superlinearly.
+	 */
+	private static double findRoot(DoubleUnaryOperator function, double lower, double lowerValue, double upper,
+			double upperValue) {
+		int side = 0;
+		for (int i = 0; i < MAXIMUM_ITERATIONS && upper - lower > TIME_TOLERANCE; i++) {
+			double time = (lower * upperValue - upper * lowerValue) / (upperValue - lowerValue);
+			double value = function.applyAsDouble(time);
+
+			if (value == 0) {
+				return time;
+			} else if ((value < 0) == (lowerValue < 0)) {
+				lower = time;
+				lowerValue = value;
+				if (side == -1) {
+					upperValue /= 2;
+				}
+				side = -1;
+			} else {
+				upper = time;
+				upperValue = value;
+				if (side == 1) {
+					lowerValue /= 2;
+				}
+				side = 1;
+			}
+		}
+
+		return (lower + upper) / 2;
+	}
+
+	private double findPerimeterMaximum(double lower, double upper) {
+		double first = upper - GOLDEN_SECTION * (upper - lower);
+		double second = lower + GOLDEN_SECTION * (upper - lower);
+		double firstPerimeter = getPerimeter(first);
+		double secondPerimeter = getPerimeter(second);
+
+		for (int i = 0; i < MAXIMUM_ITERATIONS && upper - lower > TIME_TOLERANCE; i++) {
+			if (firstPerimeter < secondPerimeter) {
+				lower = first;
+				first = second;
+				firstPerimeter = secondPerimeter;
+				second = lower + GOLDEN_SECTION * (upper - lower);
+				secondPerimeter = getPerimeter(second);
+			} else {
+				upper = second;
+				second = first;
+				secondPerimeter = firstPerimeter;
+				first = upper - GOLDEN_SECTION * (upper - lower);
+				firstPerimeter = getPerimeter(first);
+			}
+		}
+
+		return (lower + upper) / 2;
+	}
+
+	private double getAngle(int planet, double time) {
+		return phases[planet] + velocities[planet] * time;
+	}
+
+	/*
+	 * The cross product of the positions of two planets, as the star is at
+	 * the origin of the orbits.
+	 */
+	private double getCross(int first, int second, double time) {
+		return distances[first] * distances[second] * Math.sin(getAngle(second, time) - getAngle(first, time));
+	}
+
+	private double getArea(double time) {
+		double area = 0;
+		for (int i = 0; i < distances.length; i++) {
+			area += getCross(i, (i + 1) % distances.length, time);
+		}
+
+		return area / 2;
+	}
+
+	private double getAreaDerivative(double time) {
+		double derivative = 0;
+		for (int i = 0; i < distances.length; i++) {
+			int j = (i + 1) % distances.length;
+			derivative += distances[i] * distances[j] * (velocities[j] - velocities[i])
+					* Math.cos(getAngle(j, time) - getAngle(i, time));
+		}
+
+		return derivative / 2;
+	}
+
+	private double getAreaLipschitz() {
+		double lipschitz = 0;
+		for (int i = 0; i < distances.length; i++) {
+			int j = (i + 1) % distances.length;
+			lipschitz += distances[i] * distances[j] * Math.abs(velocities[j] - velocities[i]);
+		}
+
+		return lipschitz / 2;
+	}
+
+	private boolean containsStar(double time) {
+		boolean positive = true;
+		boolean negative = true;
+		for (int i = 0; i < distances.length; i++) {
+			double cross = getCross(i, (i + 1) % distances.length, time);
+			positive &= cross > 0;
+			negative &= cross < 0;
+		}
+
+		return positive || negative;
+	}
+
+	private double getPerimeter(double time) {
+		double perimeter = 0;
+		for (int i = 0; i < distances.length; i++) {
+			int j = (i + 1) % distances.length;
+			perimeter += Math.sqrt(distances[i] * distances[i] + distances[j] * distances[j]
+					- 2 * distances[i] * distances[j] * Math.cos(getAngle(j, time) - getAngle(i, time)));
+		}
+
+		return perimeter;
+	}
+
+	private double getMaximumRelativeVelocity() {
+		double maximum = 0;
+		for (int i = 0; i < velocities.length; i++) {
+			int j = (i + 1) % velocities.length;
+			maximum = Math.max(maximum, Math.abs(velocities[j] - velocities[i]));
+		}
+
+		return maximum;
+	}
+
+}
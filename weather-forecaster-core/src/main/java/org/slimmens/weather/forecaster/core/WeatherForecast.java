@@ -0,0 +1,116 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+/**
+ * The weather conditions of a solar system over a horizon of days, starting
+ * at the day zero of the orbits. When the system is periodic, only one cycle
+ * is stored and every other day is served from it.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherForecast {
+
+	/**
+	 * The conditions of the stored days, one per day.
+	 */
+	private final WeatherCondition[] conditions;
+
+	/**
+	 * Whether the stored days are a cycle that repeats forever.
+	 */
+	private final boolean periodic;
+
+	/**
+	 * The amount of days covered by this <code>WeatherForecast</code>.
+	 */
+	private final long horizon;
+
+	/**
+	 * Constructs and initializes a forecast with the given conditions.
+	 *
+	 * @param conditions
+	 *            an array of {@link WeatherCondition} with one condition per
+	 *            day. The array must not be <code>null</code>.
+	 * @param periodic
+	 *            <code>true</code> if the conditions are a cycle that repeats
+	 *            over the whole horizon.
+	 * @param horizon
+	 *            the amount of days covered by the forecast.
+	 */
+	public WeatherForecast(WeatherCondition[] conditions, boolean periodic, long horizon) {
+		super();
+
+		Assert.notNull(conditions, "An array of conditions is required to create a new forecast.");
+		Assert.isTrue(periodic ? conditions.length > 0 : conditions.length >= horizon,
+				"The conditions must cover the whole horizon of the forecast.");
+
+		this.conditions = conditions;
+		this.periodic = periodic;
+		this.horizon = horizon;
+	}
+
+	/**
+	 * Returns the weather condition of the given day.
+	 *
+	 * @param day
+	 *            the day to get the condition for, between zero and the
+	 *            horizon.
+	 * @return the {@link WeatherCondition} of the given day.
+	 */
+	public WeatherCondition getCondition(long day) {
+		Assert.isTrue(day >= 0 && day < horizon, "The day must be in the horizon of the forecast.");
+
+		return conditions[(int) (periodic ? day % conditions.length : day)];
+	}
+
+	/**
+	 * Returns the weather conditions of a range of days, tiling the stored
+	 * cycle when the system is periodic.
+	 *
+	 * @param fromDay
+	 *            the first day of the range.
+	 * @param days
+	 *            the amount of days of the range.
+	 * @return an array of {@link WeatherCondition} with one condition per day.
+	 */
+	public WeatherCondition[] getConditions(long fromDay, int days) {
+		Assert.isTrue(fromDay >= 0 && days >= 0 && fromDay + days <= horizon,
+				"The range must be in the horizon of the forecast.");
+
+		if (!periodic) {
+			return Arrays.copyOfRange(conditions, (int) fromDay, (int) fromDay + days);
+		}
+
+		WeatherCondition[] range = new WeatherCondition[days];
+		int offset = (int) (fromDay % conditions.length);
+		for (int filled = 0; filled < days;) {
+			int length = Math.min(conditions.length - offset, days - filled);
+			System.arraycopy(conditions, offset, range, filled, length);
+			filled += length;
+			offset = 0;
+		}
+
+		return range;
+	}
+
+	public boolean isPeriodic() {
+		return periodic;
+	}
+
+	public int getPeriod() {
+		return periodic ? conditions.length : 0;
+	}
+
+	public long getHorizon() {
+		return horizon;
+	}
+
+	@Override
+	public String toString() {
+		return "WeatherForecast [periodic=" + periodic + ", period=" + getPeriod() + ", horizon=" + horizon + "]";
+	}
+
+}
@@ -0,0 +1,134 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import org.springframework.util.Assert;
+
+/**
+ * An engine to forecast the weather of many independent solar systems at
+ * once. Every system is a task of its own on a {@link ForkJoinPool} that lives
+ * as long as the engine, so idle workers steal the pending systems when the
+ * costs of the systems are uneven, and the workers never share anything but
+ * the sink.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherForecastEngine {
+
+	/**
+	 * The arithmetic used to evaluate the geometry of the planets.
+	 */
+	private final GeometryMode mode;
+
+	/**
+	 * The pool where the systems are forecasted.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructs and initializes an engine that runs on the common
+	 * {@link ForkJoinPool}.
+	 */
+	public WeatherForecastEngine() {
+		this(GeometryMode.BIG_DECIMAL, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs and initializes an engine with the given mode and a pool of
+	 * its own with the given amount of workers.
+	 *
+	 * @param mode
+	 *            the {@link GeometryMode} used to evaluate the positions.
+	 * @param workers
+	 *            the amount of worker threads. It must be greater than zero.
+	 */
+	public WeatherForecastEngine(GeometryMode mode, int workers) {
+		this(mode, createPool(workers));
+	}
+
+	/**
+	 * Constructs and initializes an engine with the given mode that runs on
+	 * the given pool.
+	 *
+	 * @param mode
+	 *            the {@link GeometryMode} used to evaluate the positions.
+	 * @param pool
+	 *            the {@link ForkJoinPool} where the systems are forecasted.
+	 */
+	public WeatherForecastEngine(GeometryMode mode, ForkJoinPool pool) {
+		super();
+
+		Assert.notNull(mode, "A geometry mode is required to create a new engine.");
+		Assert.notNull(pool, "A pool is required to create a new engine.");
+
+		this.mode = mode;
+		this.pool = pool;
+	}
+
+	/**
+	 * Forecasts the weather of the given solar systems for the days between
+	 * zero and the given horizon. Each forecast is handed to the sink as soon
+	 * as it is ready, from the worker that evaluated it, so the sink must be
+	 * safe to call from several threads at the same time.
+	 *
+	 * @param solarSystems
+	 *            a {@link Collection} of {@link SolarSystem} to forecast.
+	 * @param horizon
+	 *            the amount of days to forecast.
+	 * @param sink
+	 *            a {@link BiConsumer} that receives every solar system
+	 *            together with its {@link WeatherForecast}.
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting for the
+	 *             workers.
+	 */
+	public void forecast(Collection<SolarSystem> solarSystems, long horizon,
+			BiConsumer<SolarSystem, WeatherForecast> sink) throws InterruptedException {
+		Assert.notNull(solarSystems, "A collection of solar systems is required to forecast the weather.");
+		Assert.isTrue(horizon >= 0, "The horizon of the weather forecast must not be negative.");
+		Assert.notNull(sink, "A sink is required to receive the weather forecasts.");
+
+		List<Future<?>> results = new ArrayList<>(solarSystems.size());
+		try {
+			for (SolarSystem system : solarSystems) {
+				results.add(pool.submit(() -> sink.accept(system, WeatherForecaster.forecast(mode,
+						system.getStarPosition(), horizon, system.getOrbits(), true))));
+			}
+
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw new IllegalStateException("A worker failed to forecast the weather.", e.getCause());
+		} finally {
+			for (Future<?> result : results) {
+				result.cancel(false);
+			}
+		}
+	}
+
+	private static ForkJoinPool createPool(int workers) {
+		Assert.isTrue(workers > 0, "At least one worker is required to create a new engine.");
+
+		return new ForkJoinPool(workers);
+	}
+
+	public GeometryMode getMode() {
+		return mode;
+	}
+
+	public int getWorkers() {
+		return pool.getParallelism();
+	}
+
+}
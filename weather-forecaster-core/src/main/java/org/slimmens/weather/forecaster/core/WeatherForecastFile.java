@@ -0,0 +1,377 @@
+package org.slimmens.weather.forecaster.core;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import org.slimmens.weather.forecaster.core.math.Point;
+import org.springframework.util.Assert;
+
+/**
+ * A useful helper class to store a {@link WeatherConditionIndex} in a compact
+ * binary file and to load it back by mapping the file into memory, so a
+ * forecast is computed once and then served straight from the file.
+ * <p>
+ * The file starts with a header of {@value #HEADER_SIZE} bytes: a magic
+ * number, the version of the format, a fingerprint of the solar system, the
+ * amount of planets, the version of the weather rules, the first day, the
+ * horizon and a CRC-32 checksum of the days. It is followed by the ordinal of
+ * the {@link WeatherCondition} of each day, one byte per day.
+ * <p>
+ * The days of a file never change once written, so a rolling window is kept
+ * by appending the new days at the end and patching the horizon and the
+ * checksum of the header, which is continued from the stored one. The days
+ * before the window are left in the file until they outnumber the days of
+ * the window, when the file is written again from scratch.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherForecastFile {
+
+	/**
+	 * The amount of bytes before the first day.
+	 */
+	public static final int HEADER_SIZE = 48;
+
+	/*
+	 * "WFCF" in ASCII.
+	 */
+	private static final int MAGIC = 0x57464346;
+
+	private static final int VERSION = 3;
+
+	/*
+	 * The position of the horizon in the header, followed by the checksum.
+	 */
+	private static final int HORIZON_POSITION = 32;
+
+	/*
+	 * The CRC-32 of every byte, as computed by CRC32.
+	 */
+	private static final int[] CRC_TABLE = createCrcTable();
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/**
+	 * Writes the given index of the weather conditions of a solar system to a
+	 * file. The file is first written next to the given path and then moved
+	 * to it, so a reader never finds a file written halfway.
+	 *
+	 * @param path
+	 *            the {@link Path} of the file. Its parent directory must exist.
+	 * @param solarSystem
+	 *            the {@link SolarSystem} whose weather is indexed.
+	 * @param index
+	 *            the {@link WeatherConditionIndex} to write.
+	 * @throws IOException
+	 *             if the file can not be written.
+	 */
+	public static void write(Path path, SolarSystem solarSystem, WeatherConditionIndex index) throws IOException {
+		Assert.notNull(path, "A path is required to write a forecast file.");
+		Assert.notNull(solarSystem, "A solar system is required to write a forecast file.");
+		Assert.notNull(index, "An index is required to write a forecast file.");
+
+		ByteBuffer days = index.getOrdinals();
+		CRC32 checksum = new CRC32();
+		checksum.update(days.duplicate());
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putLong(getFingerprint(solarSystem));
+		header.putInt(solarSystem.getPlanets().size());
+		header.putInt(WeatherForecaster.RULES_VERSION);
+		header.putLong(index.getFirstDay());
+		header.putLong(index.getHorizon());
+		header.putLong(checksum.getValue());
+		header.flip();
+
+		Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+
+			while (days.hasRemaining()) {
+				channel.write(days);
+			}
+
+			channel.force(true);
+		}
+
+		Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Writes the days of the given index after the last day of the file,
+	 * patching the horizon and the checksum of its header, so updating a
+	 * rolling window only writes the new days. The days already in the file
+	 * must be the ones previously written or read for the same solar system,
+	 * which are not read again. The whole file is written again with
+	 * {@link #write(Path, SolarSystem, WeatherConditionIndex)} when it does
+	 * not exist, was written for another solar system or other weather rules,
+	 * does not reach the first day of the index or has more days before the
+	 * index than in it.
+	 *
+	 * @param path
+	 *            the {@link Path} of the file. Its parent directory must exist.
+	 * @param solarSystem
+	 *            the {@link SolarSystem} whose weather is indexed.
+	 * @param index
+	 *            the {@link WeatherConditionIndex} to write.
+	 * @throws IOException
+	 *             if the file can not be written.
+	 */
+	public static void append(Path path, SolarSystem solarSystem, WeatherConditionIndex index) throws IOException {
+		Assert.notNull(path, "A path is required to write a forecast file.");
+		Assert.notNull(solarSystem, "A solar system is required to write a forecast file.");
+		Assert.notNull(index, "An index is required to write a forecast file.");
+
+		if (Files.isRegularFile(path)) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				ByteBuffer header = readHeader(channel);
+				if (header.remaining() == HEADER_SIZE && isHeaderOf(header, solarSystem)) {
+					long storedFirstDay = header.getLong();
+					long storedHorizon = header.getLong();
+					long storedChecksum = header.getLong();
+					long storedEndDay = storedFirstDay + storedHorizon;
+
+					if (channel.size() >= HEADER_SIZE + storedHorizon && storedFirstDay <= index.getFirstDay()
+							&& storedEndDay >= index.getFirstDay()
+							&& index.getFirstDay() - storedFirstDay <= index.getHorizon()) {
+						if (storedEndDay < index.getEndDay()) {
+							appendDays(channel, index.getOrdinals(storedEndDay, index.getEndDay()),
+									storedHorizon, storedChecksum);
+						}
+
+						return;
+					}
+				}
+			}
+		}
+
+		write(path, solarSystem, index);
+	}
+
+	/**
+	 * Reads the index of the weather conditions of a solar system from a
+	 * file, mapping its days into memory instead of copying them. The index
+	 * starts at the given day and covers as many of the following days as
+	 * the file has, up to the given end day.
+	 *
+	 * @param path
+	 *            the {@link Path} of the file.
+	 * @param solarSystem
+	 *            the {@link SolarSystem} whose weather is indexed.
+	 * @param firstDay
+	 *            the first day required from the file.
+	 * @param endDay
+	 *            the day after the last one required from the file.
+	 * @return an {@link Optional} with a {@link WeatherConditionIndex} from the
+	 *         first day, or an empty one if the file does not exist, was
+	 *         written for another solar system or other weather rules, does
+	 *         not cover the first day or is corrupt.
+	 * @throws IOException
+	 *             if the file exists but can not be read.
+	 */
+	public static Optional<WeatherConditionIndex> read(Path path, SolarSystem solarSystem, long firstDay,
+			long endDay) throws IOException {
+		Assert.notNull(path, "A path is required to read a forecast file.");
+		Assert.notNull(solarSystem, "A solar system is required to read a forecast file.");
+		Assert.isTrue(firstDay >= 0 && firstDay <= endDay, "The first day must not be after the end day.");
+
+		if (!Files.isRegularFile(path)) {
+			return Optional.empty();
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE) {
+				return Optional.empty();
+			}
+
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			if (!isHeaderOf(buffer, solarSystem)) {
+				return Optional.empty();
+			}
+
+			// Any byte after the horizon comes from an append that did not
+			// finish, so it is ignored.
+			long storedFirstDay = buffer.getLong();
+			long storedHorizon = buffer.getLong();
+			long storedChecksum = buffer.getLong();
+			if (storedHorizon < 0 || storedHorizon > channel.size() - HEADER_SIZE || firstDay < storedFirstDay
+					|| firstDay >= storedFirstDay + storedHorizon) {
+				return Optional.empty();
+			}
+
+			buffer.limit(HEADER_SIZE + (int) storedHorizon);
+
+			CRC32 checksum = new CRC32();
+			checksum.update(buffer.duplicate());
+			if (checksum.getValue() != storedChecksum) {
+				return Optional.empty();
+			}
+
+			buffer.position(HEADER_SIZE + (int) (firstDay - storedFirstDay));
+			buffer.limit(HEADER_SIZE + (int) (Math.min(endDay, storedFirstDay + storedHorizon) - storedFirstDay));
+			return Optional.of(new WeatherConditionIndex(firstDay, buffer));
+		}
+	}
+
+	private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		for (long position = 0; header.hasRemaining();) {
+			int read = channel.read(header, position);
+			if (read < 0) {
+				break;
+			}
+
+			position += read;
+		}
+
+		header.flip();
+		return header;
+	}
+
+	/*
+	 * Reads the fields of the header up to the first day, and checks that they
+	 * match the given solar system and the current format and rules.
+	 */
+	private static boolean isHeaderOf(ByteBuffer header, SolarSystem solarSystem) {
+		return header.getInt() == MAGIC && header.getInt() == VERSION
+				&& header.getLong() == getFingerprint(solarSystem)
+				&& header.getInt() == solarSystem.getPlanets().size()
+				&& header.getInt() == WeatherForecaster.RULES_VERSION;
+	}
+
+	/*
+	 * Writes the given days after the stored ones and then the new horizon and
+	 * checksum. Each step is forced to the disk before the next one, so the
+	 * header never covers days that were not written.
+	 */
+	private static void appendDays(FileChannel channel, ByteBuffer days, long storedHorizon, long storedChecksum)
+			throws IOException {
+		long horizon = storedHorizon + days.remaining();
+		long checksum = updateChecksum(storedChecksum, days.duplicate());
+
+		channel.truncate(HEADER_SIZE + storedHorizon);
+		for (long position = HEADER_SIZE + storedHorizon; days.hasRemaining();) {
+			position += channel.write(days, position);
+		}
+
+		channel.force(false);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE - HORIZON_POSITION);
+		header.putLong(horizon);
+		header.putLong(checksum);
+		header.flip();
+		for (long position = HORIZON_POSITION; header.hasRemaining();) {
+			position += channel.write(header, position);
+		}
+
+		channel.force(false);
+	}
+
+	/*
+	 * Continues the CRC-32 of the bytes before the given ones, which is the
+	 * same as the CRC32 of all the bytes together. The CRC32 class can not
+	 * start from a previous value.
+	 */
+	private static long updateChecksum(long checksum, ByteBuffer bytes) {
+		int crc = ~(int) checksum;
+		while (bytes.hasRemaining()) {
+			crc = CRC_TABLE[(crc ^ bytes.get()) & 0xff] ^ (crc >>> 8);
+		}
+
+		return ~crc & 0xffffffffL;
+	}
+
+	private static int[] createCrcTable() {
+		int[] table = new int[256];
+		for (int n = 0; n < table.length; n++) {
+			int crc = n;
+			for (int bit = 0; bit < 8; bit++) {
+				crc = (crc & 1) != 0 ? 0xedb88320 ^ (crc >>> 1) : crc >>> 1;
+			}
+
+			table[n] = crc;
+		}
+
+		return table;
+	}
+
+	/*
+	 * Returns a 64-bit FNV-1a hash of the position of the star and the numeric
+	 * parameters of the orbits of the planets, which is everything the forecast
+	 * depends on. An orbit of any other type is hashed by its class name and
+	 * description.
+	 */
+	private static long getFingerprint(SolarSystem solarSystem) {
+		Point starPosition = solarSystem.getStarPosition();
+		long hash = hash(FNV_OFFSET_BASIS, starPosition.getX());
+		hash = hash(hash, starPosition.getY());
+		for (Orbit orbit : solarSystem.getOrbits()) {
+			if (orbit instanceof CircularOrbit) {
+				CircularOrbit circularOrbit = (CircularOrbit) orbit;
+				hash = hash(hash, 1);
+				hash = hash(hash, circularOrbit.getStarDistance());
+				hash = hash(hash, circularOrbit.getAngularDisplacement().getUnits());
+			} else if (orbit instanceof EllipticalOrbit) {
+				EllipticalOrbit ellipticalOrbit = (EllipticalOrbit) orbit;
+				hash = hash(hash, 2);
+				hash = hash(hash, ellipticalOrbit.getSemiMajorAxis());
+				hash = hash(hash, Double.doubleToLongBits(ellipticalOrbit.getEccentricity()));
+				hash = hash(hash, ellipticalOrbit.getAngularDisplacement().getUnits());
+				hash = hash(hash, ellipticalOrbit.getArgumentOfPeriapsis().getUnits());
+			} else {
+				hash = hash(hash, 3);
+				hash = hash(hash, (orbit.getClass().getName() + ';' + orbit).getBytes(StandardCharsets.UTF_8));
+			}
+		}
+
+		return hash;
+	}
+
+	/*
+	 * Hashes a decimal by its unscaled value and scale once the trailing zeros
+	 * are stripped, so equal numbers written with another scale match.
+	 */
+	private static long hash(long hash, BigDecimal value) {
+		BigDecimal strippedValue = value.stripTrailingZeros();
+		hash = hash(hash, strippedValue.scale());
+		return hash(hash, strippedValue.unscaledValue().toByteArray());
+	}
+
+	private static long hash(long hash, long value) {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			hash ^= (value >>> shift) & 0xff;
+			hash *= FNV_PRIME;
+		}
+
+		return hash;
+	}
+
+	private static long hash(long hash, byte[] bytes) {
+		hash = hash(hash, bytes.length);
+		for (byte b : bytes) {
+			hash ^= b & 0xff;
+			hash *= FNV_PRIME;
+		}
+
+		return hash;
+	}
+
+}
@@ -1,12 +1,9 @@
 package org.slimmens.weather.forecaster.core;
 
-import java.math.BigDecimal;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
 
 import org.slimmens.weather.forecaster.core.math.Point;
-import org.slimmens.weather.forecaster.core.math.Polygon;
 import org.springframework.util.Assert;
 
 /**
@@ -16,6 +13,14 @@ import org.springframework.util.Assert;
  */
 public class WeatherForecaster {
 
+	/**
+	 * The version of the rules that decide the weather condition of a day. It
+	 * must be increased whenever a change in the rules makes any day change
+	 * its condition, so the forecasts stored with the previous rules are
+	 * discarded.
+	 */
+	public static final int RULES_VERSION = 2;
+
 	/**
 	 * Returns a weather condition of a solar system represented by a star and an
 	 * array of planets. The method will calculate the weather condition based on
@@ -41,7 +46,8 @@ public class WeatherForecaster {
 	 * <tr align=left>
 	 * <td>RAIN_PICK</td>
 	 * <td>The planets form a polygon that contains the sun, and the perimeter of
-	 * that polygon is the largest in the rainy season.</td>
+	 * that polygon is the largest in the rainy season. When the largest
+	 * perimeter lasts several days, only the last one is a pick.</td>
 	 * </tr>
 	 * <tr align=left>
 	 * <td>NONE</td>
@@ -59,62 +65,254 @@ public class WeatherForecaster {
 	 *         positions.
 	 */
 	public static WeatherCondition getWeatherCondition(final Point starPosition, final Planet... planets) {
+		return getWeatherCondition(GeometryMode.BIG_DECIMAL, starPosition, planets);
+	}
+
+	/**
+	 * Returns a weather condition of a solar system represented by a star and an
+	 * array of planets, evaluating the geometry with the given
+	 * {@link GeometryMode}. Both modes return the same conditions, as the
+	 * <code>DOUBLE</code> mode works over the same rounded coordinates than the
+	 * <code>BIG_DECIMAL</code> one.
+	 * 
+	 * @param mode
+	 *            the {@link GeometryMode} used to evaluate the positions.
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the solar
+	 *            system.
+	 * @param planets
+	 *            an array of {@link Planet} that are part of the solar system.
+	 * @return the {@link WeatherCondition} for that specific star and planets
+	 *         positions.
+	 * @see #getWeatherCondition(Point, Planet...)
+	 */
+	public static WeatherCondition getWeatherCondition(final GeometryMode mode, final Point starPosition,
+			final Planet... planets) {
+		Assert.notNull(mode, "A geometry mode is required to get the weather condition.");
 		Assert.notNull(starPosition, "A star location is required to get the weather condition.");
-		Assert.notNull(planets, "At least one planet is required to get the weather condition.");
+		Assert.notEmpty(planets, "At least one planet is required to get the weather condition.");
 
-		List<Point> planetPositions = Arrays.stream(planets).map(planet -> planet.getPosition())
-				.collect(Collectors.toList());
+		Point[] positions = new Point[planets.length];
+		Orbit[] orbits = new Orbit[planets.length];
+		for (int i = 0; i < planets.length; i++) {
+			positions[i] = planets[i].getPosition();
+			orbits[i] = planets[i].getOrbit();
+		}
 
-		Polygon polygon = new Polygon(planetPositions);
+		return new WeatherConditionEvaluator(mode, starPosition, positions, orbits).next();
+	}
 
-		// If the polygon area is empty, it is a line. So the planets are align.
-		if (polygon.isEmpty()) {
-			polygon.addPoint(starPosition);
+	/**
+	 * Returns a weather condition of a solar system on the given day, where the
+	 * planets positions are calculated directly from their orbits. Unlike
+	 * {@link #getWeatherCondition(Point, Planet...)}, it does not require to
+	 * move any planet through the previous days, so any day takes about the
+	 * same time to be evaluated: the polygons of the day and of the next one,
+	 * plus the ones of the previous days when the day may be a rain pick. A
+	 * rain day on a plateau of equal perimeters looks back until the start of
+	 * the plateau, which may take up to 360 more polygons.
+	 * 
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the solar
+	 *            system.
+	 * @param day
+	 *            the amount of days elapsed since the initial position of the
+	 *            orbits.
+	 * @param orbits
+	 *            an array of {@link Orbit} followed by the planets of the solar
+	 *            system.
+	 * @return the {@link WeatherCondition} for that specific star and planets
+	 *         positions on the given day.
+	 * @see #getWeatherCondition(Point, Planet...)
+	 */
+	public static WeatherCondition getWeatherCondition(final Point starPosition, final long day,
+			final Orbit... orbits) {
+		return getWeatherCondition(GeometryMode.BIG_DECIMAL, starPosition, day, orbits);
+	}
 
-			// If the area of the polygon still being zero when adding the sun,
-			// then the system has drought.
-			if (polygon.isEmpty()) {
-				return WeatherCondition.DROUGHT;
-			}
+	/**
+	 * Returns a weather condition of a solar system on the given day,
+	 * evaluating the geometry with the given {@link GeometryMode}.
+	 * 
+	 * @param mode
+	 *            the {@link GeometryMode} used to evaluate the positions.
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the solar
+	 *            system.
+	 * @param day
+	 *            the amount of days elapsed since the initial position of the
+	 *            orbits.
+	 * @param orbits
+	 *            an array of {@link Orbit} followed by the planets of the solar
+	 *            system.
+	 * @return the {@link WeatherCondition} for that specific star and planets
+	 *         positions on the given day.
+	 * @see #getWeatherCondition(Point, long, Orbit...)
+	 */
+	public static WeatherCondition getWeatherCondition(final GeometryMode mode, final Point starPosition,
+			final long day, final Orbit... orbits) {
+		Assert.notNull(mode, "A geometry mode is required to get the weather condition.");
+		Assert.notNull(starPosition, "A star location is required to get the weather condition.");
+		Assert.notNull(orbits, "At least one orbit is required to get the weather condition.");
 
-			// If not, just the planets are align, so the system has optimal
-			// pressure and temp.
-			return WeatherCondition.OPTIMAL_PRESSURE_AND_TEMP;
-		} else if (polygon.contains(starPosition)) {
+		return new WeatherConditionEvaluator(mode, starPosition, day, orbits).next();
+	}
 
-			// If the sun is contained in the polygon and the perimeter is the
-			// maximum in the rain season, the system
-			// has a rain pick.
-			if (hasReachedMaximumPerimeter(polygon.getPerimeter(), planets)) {
-				return WeatherCondition.RAIN_PICK;
-			}
+	/**
+	 * Returns the weather forecast of a solar system for the days between zero
+	 * and the given horizon. When the orbits are periodic (see
+	 * {@link PeriodAnalyzer}), only the days of one cycle are evaluated and the
+	 * rest of the horizon is served from them, otherwise every day of the
+	 * horizon is evaluated.
+	 * 
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the solar
+	 *            system.
+	 * @param horizon
+	 *            the amount of days to forecast.
+	 * @param orbits
+	 *            an array of {@link Orbit} followed by the planets of the solar
+	 *            system.
+	 * @return a {@link WeatherForecast} with the conditions of every day of the
+	 *         horizon.
+	 */
+	public static WeatherForecast forecast(final Point starPosition, final long horizon, final Orbit... orbits) {
+		return forecast(GeometryMode.BIG_DECIMAL, starPosition, horizon, orbits);
+	}
 
-			// If not, the system has just a common rain.
-			return WeatherCondition.RAIN;
-		}
+	/**
+	 * Returns the weather forecast of a solar system for the days between zero
+	 * and the given horizon, evaluating the geometry with the given
+	 * {@link GeometryMode}.
+	 * 
+	 * @param mode
+	 *            the {@link GeometryMode} used to evaluate the positions.
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the solar
+	 *            system.
+	 * @param horizon
+	 *            the amount of days to forecast.
+	 * @param orbits
+	 *            an array of {@link Orbit} followed by the planets of the solar
+	 *            system.
+	 * @return a {@link WeatherForecast} with the conditions of every day of the
+	 *         horizon.
+	 * @see #forecast(Point, long, Orbit...)
+	 */
+	public static WeatherForecast forecast(final GeometryMode mode, final Point starPosition, final long horizon,
+			final Orbit... orbits) {
+		return forecast(mode, starPosition, horizon, orbits, false);
+	}
+
+	/**
+	 * Returns the weather forecast of a solar system for the days between zero
+	 * and the given horizon.
+	 * 
+	 * @param solarSystem
+	 *            the {@link SolarSystem} to forecast.
+	 * @param horizon
+	 *            the amount of days to forecast.
+	 * @return a {@link WeatherForecast} with the conditions of every day of the
+	 *         horizon.
+	 * @see #forecast(Point, long, Orbit...)
+	 */
+	public static WeatherForecast forecast(final SolarSystem solarSystem, final long horizon) {
+		Assert.notNull(solarSystem, "A solar system is required to get the weather forecast.");
 
-		// For other cases, there is no weather forecast.
-		return WeatherCondition.NONE;
+		return forecast(solarSystem.getStarPosition(), horizon, solarSystem.getOrbits());
 	}
 
-	private static boolean hasReachedMaximumPerimeter(BigDecimal perimeter, Planet... planets) {
-		List<Point> planetPreviousPositions = Arrays.stream(planets).map(planet -> planet.getPreviousPosition())
-				.collect(Collectors.toList());
+	/*
+	 * Evaluates a single cycle when the system is periodic within the horizon
+	 * and the whole horizon if not, either in parallel on the common pool or
+	 * sequentially in the calling thread.
+	 */
+	static WeatherForecast forecast(final GeometryMode mode, final Point starPosition, final long horizon,
+			final Orbit[] orbits, final boolean sequential) {
+		Assert.notNull(mode, "A geometry mode is required to get the weather forecast.");
+		Assert.notNull(starPosition, "A star location is required to get the weather forecast.");
+		Assert.notNull(orbits, "At least one orbit is required to get the weather forecast.");
+		Assert.isTrue(horizon >= 0, "The horizon of the weather forecast must not be negative.");
 
-		BigDecimal previousPerimeter = (new Polygon(planetPreviousPositions)).getPerimeter();
-		if (perimeter.compareTo(previousPerimeter) < 0) {
-			return false;
-		}
+		OptionalLong period = PeriodAnalyzer.getJointPeriod(orbits);
+		boolean periodic = period.isPresent() && period.getAsLong() < horizon;
 
-		List<Point> planetNextPositions = Arrays.stream(planets).map(planet -> planet.getNextPosition())
-				.collect(Collectors.toList());
+		long days = periodic ? period.getAsLong() : horizon;
+		Assert.isTrue(days <= Integer.MAX_VALUE, "The days to evaluate exceed the capacity of a weather forecast.");
 
-		BigDecimal nextPerimeter = (new Polygon(planetNextPositions)).getPerimeter();
-		if (perimeter.compareTo(nextPerimeter) < 0) {
-			return false;
+		WeatherCondition[] conditions;
+		if (sequential) {
+			conditions = new WeatherCondition[(int) days];
+			new ForecastRangeTask(mode, starPosition, orbits, 0, conditions, 0, conditions.length)
+					.computeSequentially();
+		} else {
+			conditions = forecastRange(mode, ForkJoinPool.commonPool(), starPosition, 0, days, orbits);
 		}
 
-		return true;
+		return new WeatherForecast(conditions, periodic, horizon);
+	}
+
+	/**
+	 * Returns the weather conditions of a solar system for a range of days. The
+	 * range is split in chunks that are evaluated in parallel on the common
+	 * {@link ForkJoinPool}, each one starting from the positions of its first
+	 * day.
+	 * 
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the solar
+	 *            system.
+	 * @param startDay
+	 *            the first day of the range, inclusive.
+	 * @param endDay
+	 *            the last day of the range, exclusive.
+	 * @param orbits
+	 *            an array of {@link Orbit} followed by the planets of the solar
+	 *            system.
+	 * @return an array of {@link WeatherCondition} with the condition of every
+	 *         day of the range, in order.
+	 */
+	public static WeatherCondition[] forecastRange(final Point starPosition, final long startDay, final long endDay,
+			final Orbit... orbits) {
+		return forecastRange(GeometryMode.BIG_DECIMAL, ForkJoinPool.commonPool(), starPosition, startDay, endDay,
+				orbits);
+	}
+
+	/**
+	 * Returns the weather conditions of a solar system for a range of days,
+	 * evaluating the geometry with the given {@link GeometryMode} and splitting
+	 * the range on the given {@link ForkJoinPool}.
+	 * 
+	 * @param mode
+	 *            the {@link GeometryMode} used to evaluate the positions.
+	 * @param pool
+	 *            the {@link ForkJoinPool} where the chunks of the range are
+	 *            evaluated.
+	 * @param starPosition
+	 *            a {@link Point} representing the position of the star of the solar
+	 *            system.
+	 * @param startDay
+	 *            the first day of the range, inclusive.
+	 * @param endDay
+	 *            the last day of the range, exclusive.
+	 * @param orbits
+	 *            an array of {@link Orbit} followed by the planets of the solar
+	 *            system.
+	 * @return an array of {@link WeatherCondition} with the condition of every
+	 *         day of the range, in order.
+	 * @see #forecastRange(Point, long, long, Orbit...)
+	 */
+	public static WeatherCondition[] forecastRange(final GeometryMode mode, final ForkJoinPool pool,
+			final Point starPosition, final long startDay, final long endDay, final Orbit... orbits) {
+		Assert.notNull(mode, "A geometry mode is required to get the weather forecast.");
+		Assert.notNull(pool, "A pool is required to get the weather forecast.");
+		Assert.notNull(starPosition, "A star location is required to get the weather forecast.");
+		Assert.notNull(orbits, "At least one orbit is required to get the weather forecast.");
+		Assert.isTrue(startDay <= endDay, "The start day must not be after the end day.");
+		Assert.isTrue(endDay - startDay <= Integer.MAX_VALUE, "The range exceeds the capacity of a weather forecast.");
+
+		WeatherCondition[] conditions = new WeatherCondition[(int) (endDay - startDay)];
+		pool.invoke(new ForecastRangeTask(mode, starPosition, orbits, startDay, conditions, 0, conditions.length));
+		return conditions;
 	}
 
 }
@@ -2,6 +2,13 @@ package org.slimmens.weather.forecaster.core.math;
 
 import java.math.BigDecimal;
 
+/**
+ * An angle normalized to a full rotation, stored as a single amount of
+ * milliarcseconds. The degrees, minutes and seconds are just views over that
+ * amount, so the arithmetic never needs to cascade between components.
+ *
+ * @author Nicols Martn
+ */
 public class Angle implements Comparable<Angle> {
 
 	public static final int MAX_DEGREES = 360;
@@ -12,34 +19,37 @@ public class Angle implements Comparable<Angle> {
 	public static final int MIN_MINUTES = 0;
 	public static final BigDecimal MIN_SECONDS = BigDecimal.ZERO;
 
-	private int degrees;
+	public static final int SECONDS_SCALE = 3;
 
-	private int minutes;
+	public static final long UNITS_PER_SECOND = 1000;
+	public static final long UNITS_PER_MINUTE = UNITS_PER_SECOND * 60;
+	public static final long UNITS_PER_DEGREE = UNITS_PER_MINUTE * MAX_MINUTES;
+	public static final long UNITS_PER_ROTATION = UNITS_PER_DEGREE * MAX_DEGREES;
 
-	private BigDecimal seconds;
+	/*
+	 * The amount of milliarcseconds of this angle, always between zero and a
+	 * full rotation.
+	 */
+	private long units;
 
 	public Angle(int degrees, int minutes, BigDecimal seconds) {
 		super();
-		this.degrees = degrees;
-		this.minutes = minutes;
-		this.seconds = seconds;
+		this.setUnits(degrees * UNITS_PER_DEGREE + minutes * UNITS_PER_MINUTE + toUnits(seconds));
 	}
-	
+
 	public Angle(double radians) {
 		super();
-		
-		double deegres = Math.toDegrees(radians);
-		this.degrees = (int) deegres;
-		this.minutes = (int) (deegres % this.degrees) * 60;
-		this.seconds = new BigDecimal(((deegres % this.degrees) % this.minutes) * 60);
+		this.setUnits(Math.round(Math.toDegrees(radians) * UNITS_PER_DEGREE));
 	}
 
 	public Angle(Angle angle) {
-		this(angle.getDegrees(), angle.getMinutes(), angle.getSeconds());
+		super();
+		this.units = angle.units;
 	}
 
 	public Angle(int degrees, int minutes) {
-		this(degrees, minutes, MIN_SECONDS);
+		super();
+		this.setUnits(degrees * UNITS_PER_DEGREE + minutes * UNITS_PER_MINUTE);
 	}
 
 	public Angle(int degrees) {
@@ -50,95 +60,95 @@ public class Angle implements Comparable<Angle> {
 		this(MIN_DEGREES);
 	}
 
+	public static Angle fromUnits(long units) {
+		Angle angle = new Angle();
+		angle.setUnits(units);
+		return angle;
+	}
+
 	public void increaseAngle(Angle angle) {
-		this.increaseDegrees(angle.getDegrees());
-		this.increaseMinutes(angle.getMinutes());
-		this.increaseSeconds(angle.getSeconds());
+		this.setUnits(this.units + angle.units);
 	}
 
 	public void increaseDegrees(int degrees) {
-		this.setDegrees(this.degrees + degrees);
+		this.setUnits(this.units + degrees * UNITS_PER_DEGREE);
 	}
 
 	public void increaseMinutes(int minutes) {
-		this.setMinutes(this.minutes + minutes);
+		this.setUnits(this.units + minutes * UNITS_PER_MINUTE);
 	}
 
 	public void increaseSeconds(BigDecimal seconds) {
-		this.setSeconds(this.seconds.add(seconds));
+		this.setUnits(this.units + toUnits(seconds));
 	}
 
 	public void reduceAngle(Angle angle) {
-		this.reduceDegrees(angle.getDegrees());
-		this.reduceMinutes(angle.getMinutes());
-		this.reduceSeconds(angle.getSeconds());
+		this.setUnits(this.units - angle.units);
 	}
 
 	public void reduceDegrees(int degrees) {
-		this.setDegrees(this.degrees - degrees);
+		this.setUnits(this.units - degrees * UNITS_PER_DEGREE);
 	}
 
 	public void reduceMinutes(int minutes) {
-		this.setMinutes(this.minutes - minutes);
+		this.setUnits(this.units - minutes * UNITS_PER_MINUTE);
 	}
 
 	public void reduceSeconds(BigDecimal seconds) {
-		this.setSeconds(this.seconds.subtract(seconds));
+		this.setUnits(this.units - toUnits(seconds));
 	}
 
 	public Angle add(Angle angle) {
-		Angle newAngle = new Angle(this);
-
-		newAngle.increaseAngle(angle);
-		return newAngle;
+		return fromUnits(this.units + angle.units);
 	}
 
 	public Angle substract(Angle angle) {
-		Angle newAngle = new Angle(this);
+		return fromUnits(this.units - angle.units);
+	}
 
-		newAngle.reduceAngle(angle);
-		return newAngle;
+	public Angle multiply(long factor) {
+		return fromUnits(Math.floorMod(factor, UNITS_PER_ROTATION) * this.units);
 	}
 
 	public int getDegrees() {
-		return degrees;
+		return (int) (units / UNITS_PER_DEGREE);
 	}
 
 	public void setDegrees(int degrees) {
-		this.degrees = degrees % MAX_DEGREES;
-
-		if (this.degrees < MIN_DEGREES) {
-			this.degrees += MAX_DEGREES;
-		}
+		this.setUnits(degrees * UNITS_PER_DEGREE + units % UNITS_PER_DEGREE);
 	}
 
 	public int getMinutes() {
-		return minutes;
+		return (int) (units % UNITS_PER_DEGREE / UNITS_PER_MINUTE);
 	}
 
 	public void setMinutes(int minutes) {
-		if (minutes < MIN_MINUTES) {
-			this.minutes = minutes % MAX_MINUTES + MAX_MINUTES;
-			this.increaseDegrees((minutes - MAX_MINUTES) / MAX_MINUTES);
-		} else {
-			this.minutes = minutes % MAX_MINUTES;
-			this.increaseDegrees(minutes / MAX_MINUTES);
-		}
+		this.setUnits(units - units % UNITS_PER_DEGREE + minutes * UNITS_PER_MINUTE + units % UNITS_PER_MINUTE);
 	}
 
 	public BigDecimal getSeconds() {
-		return seconds;
+		return BigDecimal.valueOf(units % UNITS_PER_MINUTE, SECONDS_SCALE);
 	}
 
 	public void setSeconds(BigDecimal seconds) {
-		if (seconds.compareTo(MIN_SECONDS) < 0) {
-			this.seconds = seconds.remainder(MAX_SECONDS).add(MAX_SECONDS);
-			this.increaseMinutes(
-					seconds.subtract(MAX_SECONDS).divide(MAX_SECONDS, MathConstants.DEFAULT_ROUNDING).intValue());
-		} else {
-			this.seconds = seconds.remainder(MAX_SECONDS);
-			this.increaseMinutes(seconds.divide(MAX_SECONDS, MathConstants.DEFAULT_ROUNDING).intValue());
-		}
+		this.setUnits(units - units % UNITS_PER_MINUTE + toUnits(seconds));
+	}
+
+	public long getUnits() {
+		return units;
+	}
+
+	public void setUnits(long units) {
+		this.units = Math.floorMod(units, UNITS_PER_ROTATION);
+	}
+
+	private static long toUnits(BigDecimal seconds) {
+		return seconds.movePointRight(SECONDS_SCALE).setScale(0, MathConstants.DEFAULT_ROUNDING).longValue();
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(units);
 	}
 
 	@Override
@@ -149,41 +159,25 @@ public class Angle implements Comparable<Angle> {
 			return false;
 
 		Angle other = (Angle) obj;
-		if (this.degrees != other.degrees)
-			return false;
-		if (this.minutes != other.minutes)
-			return false;
-		if (!this.seconds.equals(other.seconds))
-			return false;
-		return true;
+		return this.units == other.units;
 	}
 
 	@Override
 	public int compareTo(Angle angle) {
-		int degreesComparison = Integer.compare(this.degrees, angle.getDegrees());
-		if (degreesComparison != 0) {
-			return degreesComparison;
-		}
-
-		int minutesComparison = Integer.compare(this.minutes, angle.getMinutes());
-		if (minutesComparison != 0) {
-			return minutesComparison;
-		}
-
-		return this.seconds.compareTo(angle.getSeconds());
+		return Long.compare(this.units, angle.units);
 	}
 
 	public double toDouble() {
-		double decimalValue = this.degrees;
-		decimalValue += this.minutes / 60;
-		decimalValue += this.seconds.doubleValue() / 60 * 60;
+		return (double) units / UNITS_PER_DEGREE;
+	}
 
-		return decimalValue;
+	public double toRadians() {
+		return Math.toRadians(toDouble());
 	}
 
 	@Override
 	public String toString() {
-		return degrees + " " + minutes + "' " + seconds + "\"";
+		return getDegrees() + " " + getMinutes() + "' " + getSeconds().stripTrailingZeros().toPlainString() + "\"";
 	}
 
 }
@@ -0,0 +1,85 @@
+package org.slimmens.weather.forecaster.core.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * A useful helper class to calculate the convex hull of a set of points, which
+ * is the smallest convex polygon that contains all of them. It uses the
+ * monotone chain algorithm, so it takes O(n log n) to sort the points and a
+ * linear pass to build the hull.
+ *
+ * @author Nicols Martn
+ */
+public class ConvexHull {
+
+	/**
+	 * Returns the convex hull of the given points.
+	 *
+	 * @param points
+	 *            a {@link List} of {@link Point} in any order. The list must not
+	 *            be <code>null</code>.
+	 * @return a new {@link List} with the vertices of the convex hull in
+	 *         counterclockwise order. Points on the sides of the hull are not
+	 *         vertices, so aligned points have a hull of just two vertices.
+	 */
+	public static List<Point> compute(List<Point> points) {
+		Assert.notNull(points, "A list of points is required to compute a convex hull.");
+
+		List<Point> sortedPoints = new ArrayList<>(points);
+		sortedPoints.sort(ConvexHull::compare);
+
+		return build(sortedPoints);
+	}
+
+	/*
+	 * Compares two points from left to right and then from bottom to top.
+	 */
+	static int compare(Point firstPoint, Point secondPoint) {
+		int comparison = firstPoint.getX().compareTo(secondPoint.getX());
+		if (comparison != 0) {
+			return comparison;
+		}
+
+		return firstPoint.getY().compareTo(secondPoint.getY());
+	}
+
+	/*
+	 * Builds the lower and the upper chains of the hull from points already
+	 * sorted by compare(Point, Point).
+	 */
+	static List<Point> build(List<Point> sortedPoints) {
+		int size = sortedPoints.size();
+		if (size < 3) {
+			return new ArrayList<>(sortedPoints);
+		}
+
+		Point[] hull = new Point[2 * size];
+		int k = 0;
+
+		for (int i = 0; i < size; i++) {
+			Point point = sortedPoints.get(i);
+			while (k >= 2 && GeometricPredicates.orientation(hull[k - 2], hull[k - 1], point) <= 0) {
+				k--;
+			}
+
+			hull[k++] = point;
+		}
+
+		for (int i = size - 2, lowerSize = k + 1; i >= 0; i--) {
+			Point point = sortedPoints.get(i);
+			while (k >= lowerSize && GeometricPredicates.orientation(hull[k - 2], hull[k - 1], point) <= 0) {
+				k--;
+			}
+
+			hull[k++] = point;
+		}
+
+		// The last point is the first one again.
+		return new ArrayList<>(Arrays.asList(hull).subList(0, k - 1));
+	}
+
+}
@@ -0,0 +1,76 @@
+package org.slimmens.weather.forecaster.core.math;
+
+import org.springframework.util.Assert;
+
+/**
+ * A point in the space represented by its Cartesian coordinates as primitive
+ * <code>double</code> values. It is the lightweight counterpart of
+ * {@link Point}, meant for the hot geometry paths where the
+ * <code>BigDecimal</code> arithmetic is not required.
+ *
+ * @author Nicols Martn
+ */
+public class DoublePoint {
+
+	/**
+	 * The X Cartesian coordinate component of this <code>DoublePoint</code>.
+	 */
+	private final double x;
+
+	/**
+	 * The Y Cartesian coordinate component of this <code>DoublePoint</code>.
+	 */
+	private final double y;
+
+	/**
+	 * Constructs and initializes a point at the origin.
+	 */
+	public DoublePoint() {
+		this(0, 0);
+	}
+
+	/**
+	 * Constructs and initializes a point with the given {@code (x,y)}
+	 * coordinates in the Cartesian system.
+	 *
+	 * @param x
+	 *            the X component in the Cartesian system.
+	 * @param y
+	 *            the Y component in the Cartesian system.
+	 */
+	public DoublePoint(double x, double y) {
+		super();
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * Constructs and initializes a point with the Cartesian coordinates of the
+	 * given {@link Point}.
+	 *
+	 * @param point
+	 *            a {@link Point} to take the coordinates from. The point must
+	 *            not be <code>null</code>.
+	 */
+	public DoublePoint(Point point) {
+		super();
+
+		Assert.notNull(point, "A point is required to create a new double point.");
+		this.x = point.getX().doubleValue();
+		this.y = point.getY().doubleValue();
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	@Override
+	public String toString() {
+		return "DoublePoint [x=" + x + ", y=" + y + "]";
+	}
+
+}
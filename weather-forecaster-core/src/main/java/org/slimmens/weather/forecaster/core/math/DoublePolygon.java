@@ -0,0 +1,231 @@
+package org.slimmens.weather.forecaster.core.math;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * A polygon represented by the coordinates of its points stored as primitive
+ * <code>double</code> arrays. It offers the same operations than
+ * {@link Polygon} without allocating any intermediate value.
+ *
+ * @author Nicols Martn
+ */
+public class DoublePolygon {
+
+	/**
+	 * The X components of the points that represents the edges of this
+	 * <code>DoublePolygon</code>.
+	 */
+	private double[] xs;
+
+	/**
+	 * The Y components of the points that represents the edges of this
+	 * <code>DoublePolygon</code>.
+	 */
+	private double[] ys;
+
+	/**
+	 * The amount of points of this <code>DoublePolygon</code>.
+	 */
+	private int size;
+
+	/**
+	 * Constructs and initializes a polygon with the given points as it edges.
+	 *
+	 * @param points
+	 *            a {@link List} of the edges of the newly constructed
+	 *            <code>DoublePolygon</code>. The list should be in order and
+	 *            must not be <code>null</code>.
+	 */
+	public DoublePolygon(List<DoublePoint> points) {
+		super();
+
+		Assert.notNull(points, "A list of points is required to create a new polygon.");
+		this.size = points.size();
+		this.xs = new double[size + 1];
+		this.ys = new double[size + 1];
+
+		for (int i = 0; i < size; i++) {
+			DoublePoint point = points.get(i);
+			this.xs[i] = point.getX();
+			this.ys[i] = point.getY();
+		}
+	}
+
+	/**
+	 * Returns the sum of the sides of the polygon.
+	 *
+	 * @return the perimeter of this <code>DoublePolygon</code>.
+	 */
+	public double getPerimeter() {
+		return getPerimeter(xs, ys, size);
+	}
+
+	/**
+	 * Returns the sum of the sides of the polygon formed by the first points
+	 * of the given coordinates, without creating a <code>DoublePolygon</code>.
+	 *
+	 * @param xs
+	 *            the X components of the points, in order.
+	 * @param ys
+	 *            the Y components of the points, in order.
+	 * @param size
+	 *            the amount of points of the polygon.
+	 * @return the perimeter of the polygon.
+	 */
+	public static double getPerimeter(double[] xs, double[] ys, int size) {
+		double perimeter = 0;
+		int j = size - 1;
+
+		for (int i = 0; i < size; i++) {
+			double componentX = xs[j] - xs[i];
+			double componentY = ys[j] - ys[i];
+			perimeter += Math.sqrt(componentX * componentX + componentY * componentY);
+
+			j = i;
+		}
+
+		return perimeter;
+	}
+
+	/**
+	 * Returns the area contained by the sides of the polygon.
+	 *
+	 * @return the area of this <code>DoublePolygon</code>.
+	 */
+	public double getArea() {
+		return getArea(xs, ys, size);
+	}
+
+	/**
+	 * Returns the area contained by the polygon formed by the first points of
+	 * the given coordinates, without creating a <code>DoublePolygon</code>.
+	 *
+	 * @param xs
+	 *            the X components of the points, in order.
+	 * @param ys
+	 *            the Y components of the points, in order.
+	 * @param size
+	 *            the amount of points of the polygon.
+	 * @return the area of the polygon.
+	 */
+	public static double getArea(double[] xs, double[] ys, int size) {
+		double area = 0;
+		int j = size - 1;
+
+		for (int i = 0; i < size; i++) {
+			area += (xs[j] + xs[i]) * (ys[j] - ys[i]);
+
+			j = i;
+		}
+
+		return Math.abs(area / 2);
+	}
+
+	/**
+	 * Check if this polygon has area. As the coordinates are not exact, the
+	 * area is considered empty when it is below the
+	 * {@link MathConstants#DEFAULT_AREA_TOLERANCE}.
+	 *
+	 * @return <code>true</code> if this <code>DoublePolygon</code> has area
+	 *         greater than zero and <code>false</code> if not.
+	 */
+	public boolean isEmpty() {
+		return isEmpty(MathConstants.DEFAULT_AREA_TOLERANCE);
+	}
+
+	/**
+	 * Check if this polygon has an area greater than the given tolerance.
+	 *
+	 * @param tolerance
+	 *            the maximum area of an empty polygon.
+	 * @return <code>true</code> if this <code>DoublePolygon</code> has area
+	 *         greater than the tolerance and <code>false</code> if not.
+	 */
+	public boolean isEmpty(double tolerance) {
+		return this.getArea() <= tolerance;
+	}
+
+	/**
+	 * Check if the given <code>DoublePoint</code> is contained by this polygon.
+	 *
+	 * @param point
+	 *            a {@link DoublePoint} to check if is contained in this
+	 *            <code>DoublePolygon<code>.
+	 * @return <code>true</code> if this <code>DoublePolygon</code> contains the
+	 *         given <code>DoublePoint</code> and <code>false</code> if not.
+	 */
+	public boolean contains(DoublePoint point) {
+		return contains(point.getX(), point.getY());
+	}
+
+	/**
+	 * Check if the given {@code (x,y)} coordinates are contained by this
+	 * polygon.
+	 *
+	 * @param x
+	 *            the X component of the point to check.
+	 * @param y
+	 *            the Y component of the point to check.
+	 * @return <code>true</code> if this <code>DoublePolygon</code> contains the
+	 *         given coordinates and <code>false</code> if not.
+	 */
+	public boolean contains(double x, double y) {
+		return contains(xs, ys, size, x, y);
+	}
+
+	/**
+	 * Check if the given {@code (x,y)} coordinates are contained by the
+	 * polygon formed by the first points of the given coordinates, without
+	 * creating a <code>DoublePolygon</code>.
+	 *
+	 * @param xs
+	 *            the X components of the points, in order.
+	 * @param ys
+	 *            the Y components of the points, in order.
+	 * @param size
+	 *            the amount of points of the polygon.
+	 * @param x
+	 *            the X component of the point to check.
+	 * @param y
+	 *            the Y component of the point to check.
+	 * @return <code>true</code> if the polygon contains the given coordinates
+	 *         and <code>false</code> if not.
+	 * @see GeometricPredicates#isInPolygon(double[], double[], int, double,
+	 *      double)
+	 */
+	public static boolean contains(double[] xs, double[] ys, int size, double x, double y) {
+		if (size == 3) {
+			int orientation = GeometricPredicates.orientation(xs[0], ys[0], xs[1], ys[1], x, y);
+
+			return orientation != 0 && GeometricPredicates.orientation(xs[1], ys[1], xs[2], ys[2], x, y) == orientation
+					&& GeometricPredicates.orientation(xs[2], ys[2], xs[0], ys[0], x, y) == orientation;
+		}
+
+		return GeometricPredicates.isInPolygon(xs, ys, size, x, y);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void addPoint(DoublePoint point) {
+		if (size == xs.length) {
+			this.xs = Arrays.copyOf(xs, size * 2);
+			this.ys = Arrays.copyOf(ys, size * 2);
+		}
+
+		this.xs[size] = point.getX();
+		this.ys[size] = point.getY();
+		this.size++;
+	}
+
+	@Override
+	public String toString() {
+		return "DoublePolygon [xs=" + Arrays.toString(Arrays.copyOf(xs, size)) + ", ys="
+				+ Arrays.toString(Arrays.copyOf(ys, size)) + "]";
+	}
+
+}
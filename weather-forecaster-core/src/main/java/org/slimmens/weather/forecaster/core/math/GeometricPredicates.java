@@ -0,0 +1,266 @@
+package org.slimmens.weather.forecaster.core.math;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A useful helper class with adaptive-precision geometric predicates. Every
+ * predicate is first evaluated with doubles together with a bound of its
+ * rounding error, and only when the result falls within that bound it is
+ * evaluated again with exact arithmetic. This way, the answers are always the
+ * exact ones for the given coordinates but most of them cost just a few double
+ * operations.
+ * <p>
+ * The predicates over doubles are exact for the doubles themselves. When those
+ * doubles are the rounding of decimal coordinates, like the ones of a
+ * {@link Point}, a point closer to a side than the rounding may get a
+ * different answer than the predicates over the decimal points, which are
+ * exact for the decimal coordinates.
+ *
+ * @author Nicols Martn
+ */
+public class GeometricPredicates {
+
+	/**
+	 * The relative error bound of the orientation determinant of points whose
+	 * coordinates are exact doubles, as in Shewchuk's robust predicates. A
+	 * determinant <code>left - right</code> whose magnitude is greater than
+	 * this bound times <code>|left| + |right|</code> has the right sign.
+	 */
+	public static final double EXACT_INPUT_ERROR_BOUND = (3 + 16 * Math.ulp(0.5)) * Math.ulp(0.5);
+
+	/*
+	 * The error bound of the orientation determinant of decimal points, which
+	 * also covers the rounding of their coordinates to doubles. It is relative
+	 * to the magnitude of the coordinates instead of their differences.
+	 */
+	private static final double DECIMAL_INPUT_ERROR_BOUND = 4 * Math.ulp(1.0);
+
+	/**
+	 * Returns the orientation of three points given by their coordinates, which
+	 * is the sign of twice the area of the triangle they form. The result is
+	 * exact for the given doubles.
+	 *
+	 * @param ax
+	 *            the X component of the first point.
+	 * @param ay
+	 *            the Y component of the first point.
+	 * @param bx
+	 *            the X component of the second point.
+	 * @param by
+	 *            the Y component of the second point.
+	 * @param cx
+	 *            the X component of the third point.
+	 * @param cy
+	 *            the Y component of the third point.
+	 * @return <code>1</code> if the points are in counterclockwise order,
+	 *         <code>-1</code> if they are in clockwise order and <code>0</code>
+	 *         if they are aligned.
+	 */
+	public static int orientation(double ax, double ay, double bx, double by, double cx, double cy) {
+		double left = (ax - cx) * (by - cy);
+		double right = (ay - cy) * (bx - cx);
+		double determinant = left - right;
+
+		if (Math.abs(determinant) > EXACT_INPUT_ERROR_BOUND * (Math.abs(left) + Math.abs(right))) {
+			return determinant > 0 ? 1 : -1;
+		}
+
+		BigDecimal exactLeft = new BigDecimal(ax).subtract(new BigDecimal(cx))
+				.multiply(new BigDecimal(by).subtract(new BigDecimal(cy)));
+		BigDecimal exactRight = new BigDecimal(ay).subtract(new BigDecimal(cy))
+				.multiply(new BigDecimal(bx).subtract(new BigDecimal(cx)));
+
+		return exactLeft.compareTo(exactRight);
+	}
+
+	/**
+	 * Returns the orientation of three points, which is the sign of twice the
+	 * area of the triangle they form.
+	 *
+	 * @param a
+	 *            the first {@link Point}.
+	 * @param b
+	 *            the second {@link Point}.
+	 * @param c
+	 *            the third {@link Point}.
+	 * @return <code>1</code> if the points are in counterclockwise order,
+	 *         <code>-1</code> if they are in clockwise order and <code>0</code>
+	 *         if they are aligned.
+	 */
+	public static int orientation(Point a, Point b, Point c) {
+		return Integer.signum(compareDoubleArea(a, b, c, 0));
+	}
+
+	/**
+	 * Check if three points are aligned, which is when the area of the
+	 * triangle they form is not greater than the given tolerance.
+	 *
+	 * @param a
+	 *            the first {@link Point}.
+	 * @param b
+	 *            the second {@link Point}.
+	 * @param c
+	 *            the third {@link Point}.
+	 * @param tolerance
+	 *            the maximum area of the triangle of three aligned points. A
+	 *            tolerance of zero means that the points must be exactly
+	 *            aligned.
+	 * @return <code>true</code> if the points are aligned and
+	 *         <code>false</code> if not.
+	 */
+	public static boolean areAligned(Point a, Point b, Point c, double tolerance) {
+		return Math.abs(compareDoubleArea(a, b, c, tolerance)) <= 1;
+	}
+
+	/**
+	 * Check if a point is strictly inside the polygon formed by the given
+	 * points, in order. Points on the sides of the polygon are not inside it.
+	 * Each side is tested with the orientation predicate instead of computing
+	 * where it crosses the horizontal of the point, so no division is
+	 * involved.
+	 *
+	 * @param point
+	 *            the {@link Point} to check.
+	 * @param vertices
+	 *            a {@link List} of the vertices of the polygon, in order.
+	 * @return <code>true</code> if the point is inside the polygon and
+	 *         <code>false</code> if not.
+	 */
+	public static boolean isInPolygon(Point point, List<Point> vertices) {
+		if (vertices.size() == 3) {
+			return isInTriangle(point, vertices.get(0), vertices.get(1), vertices.get(2));
+		}
+
+		boolean inside = false;
+		int j = vertices.size() - 1;
+
+		for (int i = 0; i < vertices.size(); i++) {
+			Point first = vertices.get(j);
+			Point second = vertices.get(i);
+
+			int orientation = orientation(first, second, point);
+			if (orientation == 0 && isInBox(point, first, second)) {
+				return false;
+			}
+
+			// The side crosses the horizontal of the point on its right when
+			// the point is on the left of the side going up, or on its right
+			// going down.
+			if (first.isAbove(point) != second.isAbove(point) && (orientation > 0) == second.isAbove(first)) {
+				inside = !inside;
+			}
+
+			j = i;
+		}
+
+		return inside;
+	}
+
+	/**
+	 * Check if the given coordinates are strictly inside the polygon formed by
+	 * the first points of the given coordinates, in order. Points on the sides
+	 * of the polygon are not inside it.
+	 *
+	 * @param xs
+	 *            the X components of the vertices of the polygon.
+	 * @param ys
+	 *            the Y components of the vertices of the polygon.
+	 * @param size
+	 *            the amount of vertices of the polygon.
+	 * @param x
+	 *            the X component of the point to check.
+	 * @param y
+	 *            the Y component of the point to check.
+	 * @return <code>true</code> if the point is inside the polygon and
+	 *         <code>false</code> if not.
+	 * @see #isInPolygon(Point, List)
+	 */
+	public static boolean isInPolygon(double[] xs, double[] ys, int size, double x, double y) {
+		boolean inside = false;
+		int j = size - 1;
+
+		for (int i = 0; i < size; i++) {
+			int orientation = orientation(xs[j], ys[j], xs[i], ys[i], x, y);
+			if (orientation == 0 && Math.min(xs[j], xs[i]) <= x && x <= Math.max(xs[j], xs[i])
+					&& Math.min(ys[j], ys[i]) <= y && y <= Math.max(ys[j], ys[i])) {
+				return false;
+			}
+
+			if ((ys[j] > y) != (ys[i] > y) && (orientation > 0) == (ys[i] > ys[j])) {
+				inside = !inside;
+			}
+
+			j = i;
+		}
+
+		return inside;
+	}
+
+	/**
+	 * Check if a point is strictly inside the triangle formed by other three
+	 * points. Points on the sides of the triangle are not inside it.
+	 *
+	 * @param point
+	 *            the {@link Point} to check.
+	 * @param a
+	 *            the first vertex of the triangle.
+	 * @param b
+	 *            the second vertex of the triangle.
+	 * @param c
+	 *            the third vertex of the triangle.
+	 * @return <code>true</code> if the point is inside the triangle and
+	 *         <code>false</code> if not.
+	 */
+	public static boolean isInTriangle(Point point, Point a, Point b, Point c) {
+		int orientation = orientation(a, b, point);
+		if (orientation == 0) {
+			return false;
+		}
+
+		return orientation(b, c, point) == orientation && orientation(c, a, point) == orientation;
+	}
+
+	/*
+	 * Check if a point is inside the bounding box of a side, which for a point
+	 * aligned with the side means that it is on the side.
+	 */
+	private static boolean isInBox(Point point, Point first, Point second) {
+		return point.getX().compareTo(first.getX().min(second.getX())) >= 0
+				&& point.getX().compareTo(first.getX().max(second.getX())) <= 0
+				&& point.getY().compareTo(first.getY().min(second.getY())) >= 0
+				&& point.getY().compareTo(first.getY().max(second.getY())) <= 0;
+	}
+
+	/*
+	 * Compares twice the area of the triangle with twice the tolerance, keeping
+	 * the sign of the orientation: returns 2 or -2 if the area is greater than
+	 * the tolerance, 1 or -1 if it is equal and 0 if it is lower.
+	 */
+	private static int compareDoubleArea(Point a, Point b, Point c, double tolerance) {
+		double ax = a.getX().doubleValue();
+		double ay = a.getY().doubleValue();
+		double bx = b.getX().doubleValue();
+		double by = b.getY().doubleValue();
+		double cx = c.getX().doubleValue();
+		double cy = c.getY().doubleValue();
+
+		double determinant = (ax - cx) * (by - cy) - (ay - cy) * (bx - cx);
+		double errorBound = DECIMAL_INPUT_ERROR_BOUND * ((Math.abs(ax) + Math.abs(cx)) * (Math.abs(by) + Math.abs(cy))
+				+ (Math.abs(ay) + Math.abs(cy)) * (Math.abs(bx) + Math.abs(cx)));
+		double limit = 2 * tolerance;
+
+		if (Math.abs(determinant) - errorBound > limit) {
+			return determinant > 0 ? 2 : -2;
+		} else if (Math.abs(determinant) + errorBound < limit) {
+			return 0;
+		}
+
+		BigDecimal exactDeterminant = a.getX().subtract(c.getX()).multiply(b.getY().subtract(c.getY()))
+				.subtract(a.getY().subtract(c.getY()).multiply(b.getX().subtract(c.getX())));
+		int comparison = exactDeterminant.abs().compareTo(new BigDecimal(limit));
+
+		return comparison < 0 ? 0 : exactDeterminant.signum() * (comparison + 1);
+	}
+
+}
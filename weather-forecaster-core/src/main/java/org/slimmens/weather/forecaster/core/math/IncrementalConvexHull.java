@@ -0,0 +1,67 @@
+package org.slimmens.weather.forecaster.core.math;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * A convex hull of a set of points that move a little between updates, like
+ * the planets of a solar system from one day to the next. It remembers the
+ * order of the points from the previous update, so sorting them again is
+ * almost a single pass instead of a full O(n log n) sort.
+ *
+ * @author Nicols Martn
+ * @see ConvexHull
+ */
+public class IncrementalConvexHull {
+
+	/**
+	 * The indexes of the points in the order of the last update.
+	 */
+	private int[] order = new int[0];
+
+	/**
+	 * Returns the convex hull of the given points, which must be the same
+	 * points of the previous update on their new positions.
+	 *
+	 * @param points
+	 *            a {@link List} of {@link Point}, always in the same order. The
+	 *            list must not be <code>null</code>.
+	 * @return a new {@link List} with the vertices of the convex hull in
+	 *         counterclockwise order.
+	 * @see ConvexHull#compute(List)
+	 */
+	public List<Point> update(List<Point> points) {
+		Assert.notNull(points, "A list of points is required to compute a convex hull.");
+
+		if (order.length != points.size()) {
+			order = new int[points.size()];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+		}
+
+		// An insertion sort is linear when just a few points changed places.
+		for (int i = 1; i < order.length; i++) {
+			int index = order[i];
+			Point point = points.get(index);
+
+			int j = i - 1;
+			while (j >= 0 && ConvexHull.compare(points.get(order[j]), point) > 0) {
+				order[j + 1] = order[j];
+				j--;
+			}
+
+			order[j + 1] = index;
+		}
+
+		List<Point> sortedPoints = new ArrayList<>(order.length);
+		for (int index : order) {
+			sortedPoints.add(points.get(index));
+		}
+
+		return ConvexHull.build(sortedPoints);
+	}
+
+}
@@ -13,6 +13,13 @@ public class MathConstants {
 	
 	public static final MathContext DEFAULT_CONTEXT = new MathContext(DEFAULT_PRECISION, DEFAULT_ROUNDING);
 
+	/*
+	 * Coordinates rounded to DEFAULT_SCALE decimals can only enclose areas that
+	 * are multiples of half a squared grid unit, so any double area below a
+	 * quarter of a squared grid unit is a rounding residue of an empty area.
+	 */
+	public static final double DEFAULT_AREA_TOLERANCE = 0.25 * Math.pow(10, -2 * DEFAULT_SCALE);
+
 	/*
 	 * This class is just to store math related constants and must not be
 	 * initialized.
@@ -8,32 +8,43 @@ import ch.obermuhlner.math.big.BigDecimalMath;
 
 /**
  * A point in the space represented both by its polar coordinates and by its
- * Cartesian coordinates.
+ * Cartesian coordinates. Only the coordinates given on construction are
+ * stored, and the other ones are derived the first time they are read.
  * 
  * @author Nicols Martn
  */
 public class Point {
 
 	/**
-	 * The X Cartesian coordinate component of this <code>Point</code>.
+	 * The X Cartesian coordinate component of this <code>Point</code>, or
+	 * <code>null</code> if it was given by its polar coordinates.
 	 */
 	private final BigDecimal x;
 
 	/**
-	 * The Y Cartesian coordinate component of this <code>Point</code>.
+	 * The Y Cartesian coordinate component of this <code>Point</code>, or
+	 * <code>null</code> if it was given by its polar coordinates.
 	 */
 	private final BigDecimal y;
 
 	/**
-	 * The distance of this <code>Point</code> to the origin.
+	 * The distance of this <code>Point</code> to the origin, or
+	 * <code>null</code> if it was given by its Cartesian coordinates.
 	 */
 	private final BigDecimal distance;
 
 	/**
-	 * The angle of this <code>Point</code> from the reference direction.
+	 * The angle of this <code>Point</code> from the reference direction, or
+	 * <code>null</code> if it was given by its Cartesian coordinates.
 	 */
 	private final Angle angle;
 
+	/**
+	 * The coordinates derived from the given ones, or <code>null</code> until
+	 * they are first read.
+	 */
+	private Coordinates derivedCoordinates;
+
 	/**
 	 * Constructs and initializes a point at the origin.
 	 */
@@ -63,16 +74,8 @@ public class Point {
 		Assert.notNull(y, "A coordinate Y is require to create a new point.");
 		this.x = x;
 		this.y = y;
-
-		this.distance = BigDecimalMath.sqrt(x.pow(2).add(y.pow(2)), MathConstants.DEFAULT_CONTEXT);
-
-		if (this.distance.compareTo(BigDecimal.ZERO) == 0) {
-			this.angle = new Angle();
-		} else if (y.compareTo(BigDecimal.ZERO) >= 0) {
-			this.angle = new Angle(Math.acos(y.doubleValue() / distance.doubleValue()));
-		} else {
-			this.angle = new Angle(Math.acos(-y.doubleValue() / distance.doubleValue()));
-		}
+		this.distance = null;
+		this.angle = null;
 	}
 
 	/**
@@ -91,14 +94,10 @@ public class Point {
 
 		Assert.notNull(distance, "A distance from the origin is require to create a new point.");
 		Assert.notNull(angle, "An angle is require to create a new point.");
+		this.x = null;
+		this.y = null;
 		this.distance = distance;
-		this.angle = angle;
-
-		double radians = Math.toRadians(angle.toDouble());
-		this.x = distance.multiply(new BigDecimal(Math.cos(radians))).setScale(MathConstants.DEFAULT_SCALE,
-				MathConstants.DEFAULT_ROUNDING);
-		this.y = distance.multiply(new BigDecimal(Math.sin(radians))).setScale(MathConstants.DEFAULT_SCALE,
-				MathConstants.DEFAULT_ROUNDING);
+		this.angle = new Angle(angle);
 	}
 
 	/**
@@ -168,24 +167,89 @@ public class Point {
 	}
 
 	public BigDecimal getX() {
-		return x;
+		return x != null ? x : getDerivedCoordinates().x;
 	}
 
 	public BigDecimal getY() {
-		return y;
+		return y != null ? y : getDerivedCoordinates().y;
 	}
 
 	public BigDecimal getDistance() {
-		return distance;
+		return distance != null ? distance : getDerivedCoordinates().distance;
 	}
 
 	public Angle getAngle() {
-		return angle;
+		return new Angle(angle != null ? angle : getDerivedCoordinates().angle);
+	}
+
+	/*
+	 * The derived coordinates are computed from the given ones, which never
+	 * change, so two threads racing to derive them get equal values. The
+	 * holder only has final fields, so it is safely published through a plain
+	 * field and no synchronization is needed.
+	 */
+	private Coordinates getDerivedCoordinates() {
+		Coordinates coordinates = this.derivedCoordinates;
+		if (coordinates == null) {
+			coordinates = x == null ? toCartesian() : toPolar();
+			this.derivedCoordinates = coordinates;
+		}
+
+		return coordinates;
+	}
+
+	private Coordinates toCartesian() {
+		BigDecimal x = distance.multiply(new BigDecimal(Math.cos(angle.toRadians())))
+				.setScale(MathConstants.DEFAULT_SCALE, MathConstants.DEFAULT_ROUNDING);
+		BigDecimal y = distance.multiply(new BigDecimal(Math.sin(angle.toRadians())))
+				.setScale(MathConstants.DEFAULT_SCALE, MathConstants.DEFAULT_ROUNDING);
+
+		return new Coordinates(x, y, null, null);
+	}
+
+	private Coordinates toPolar() {
+		BigDecimal distance = BigDecimalMath.sqrt(x.pow(2).add(y.pow(2)), MathConstants.DEFAULT_CONTEXT);
+
+		Angle angle;
+		if (distance.compareTo(BigDecimal.ZERO) == 0) {
+			angle = new Angle();
+		} else if (y.compareTo(BigDecimal.ZERO) >= 0) {
+			angle = new Angle(Math.acos(y.doubleValue() / distance.doubleValue()));
+		} else {
+			angle = new Angle(Math.acos(-y.doubleValue() / distance.doubleValue()));
+		}
+
+		return new Coordinates(null, null, distance, angle);
 	}
 
 	@Override
 	public String toString() {
-		return "Point [x=" + x + ", y=" + y + ", distance=" + distance + ", angle=" + angle + "]";
+		return "Point [x=" + getX() + ", y=" + getY() + ", distance=" + getDistance() + ", angle=" + getAngle()
+				+ "]";
+	}
+
+	/**
+	 * The coordinates derived from the given ones: the X and Y components of a
+	 * point given by its polar coordinates, or the distance and angle of a
+	 * point given by its Cartesian coordinates.
+	 */
+	private static class Coordinates {
+
+		private final BigDecimal x;
+
+		private final BigDecimal y;
+
+		private final BigDecimal distance;
+
+		private final Angle angle;
+
+		private Coordinates(BigDecimal x, BigDecimal y, BigDecimal distance, Angle angle) {
+			this.x = x;
+			this.y = y;
+			this.distance = distance;
+			this.angle = angle;
+		}
+
 	}
 
 }
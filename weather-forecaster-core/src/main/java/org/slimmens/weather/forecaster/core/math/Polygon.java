@@ -90,11 +90,31 @@ public class Polygon {
 	 *         than zero and <code>false</code> if not.
 	 */
 	public boolean isEmpty() {
-		return BigDecimal.ZERO.compareTo(this.getArea()) == 0;
+		return isEmpty(0);
+	}
+
+	/**
+	 * Check if this polygon has an area greater than the given tolerance.
+	 * Triangles are checked with the {@link GeometricPredicates}, without
+	 * computing the exact area unless it is close to the tolerance.
+	 * 
+	 * @param tolerance
+	 *            the maximum area of an empty polygon.
+	 * @return <code>true</code> if this <code>Polygon</code> has area greater
+	 *         than the tolerance and <code>false</code> if not.
+	 */
+	public boolean isEmpty(double tolerance) {
+		if (points.size() == 3) {
+			return GeometricPredicates.areAligned(points.get(0), points.get(1), points.get(2), tolerance);
+		}
+
+		return this.getArea().compareTo(new BigDecimal(tolerance)) <= 0;
 	}
 
 	/**
 	 * Check if the given <code>Point</code> is contained by this polygon.
+	 * Points on the sides of the polygon are not contained, and the sides are
+	 * tested with the exact {@link GeometricPredicates}.
 	 * 
 	 * @param point
 	 *            a {@link Point} to check if is contained in this
@@ -103,38 +123,7 @@ public class Polygon {
 	 *         <code>Point</code> and <code>false</code> if not.
 	 */
 	public boolean contains(Point point) {
-		boolean inside = false;
-		int j = points.size() - 1;
-
-		for (int i = 0; i < points.size(); i++) {
-			Point firstPoint = points.get(j);
-			Point secondPoint = points.get(i);
-
-			if (intersects(firstPoint, secondPoint, point)) {
-				inside = !inside;
-			}
-
-			j = i;
-		}
-
-		return inside;
-	}
-
-	private boolean intersects(Point firstPoint, Point secondPoint, Point testPoint) {
-		if (firstPoint.isAbove(testPoint) == secondPoint.isAbove(testPoint)) {
-			return false;
-		}
-
-		BigDecimal firstPointX = firstPoint.getX();
-		BigDecimal firstPointY = firstPoint.getY();
-		BigDecimal secondPointX = secondPoint.getX();
-		BigDecimal secondPointY = secondPoint.getY();
-
-		BigDecimal numerator = firstPointX.subtract(secondPointX).multiply(testPoint.getY().subtract(secondPointY));
-		BigDecimal divisor = firstPointY.subtract(secondPointY);
-
-		return testPoint.getX()
-				.compareTo(numerator.divide(divisor, MathConstants.DEFAULT_ROUNDING).add(secondPointX)) < 0;
+		return GeometricPredicates.isInPolygon(point, points);
 	}
 
 	public List<Point> getPoints() {
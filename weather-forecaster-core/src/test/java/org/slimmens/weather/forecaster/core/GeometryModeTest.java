@@ -0,0 +1,66 @@
+package org.slimmens.weather.forecaster.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import org.slimmens.weather.forecaster.core.math.Angle;
+import org.slimmens.weather.forecaster.core.math.Point;
+
+/**
+ * Checks that both geometry modes forecast the same weather.
+ *
+ * @author Nicols Martn
+ */
+public class GeometryModeTest {
+
+	private static final int DAYS = 3600;
+
+	private static final Point STAR_POSITION = new Point();
+
+	@Test
+	public void forecastsTheSameWeatherForTheDefaultSystem() {
+		assertSameWeather(SolarSystem.createDefault().getOrbits());
+	}
+
+	@Test
+	public void forecastsTheSameWeatherForAnEllipticalOrbit() {
+		assertSameWeather(new CircularOrbit(new BigDecimal(500), new Angle(-1)),
+				new EllipticalOrbit(new BigDecimal(1800), 0.2, new Angle(-3)),
+				new CircularOrbit(new BigDecimal(1000), new Angle(5)));
+	}
+
+	@Test
+	public void forecastsTheSameWeatherForFivePlanets() {
+		assertSameWeather(new CircularOrbit(new BigDecimal(500), new Angle(-1)),
+				new CircularOrbit(new BigDecimal(2000), new Angle(-3)),
+				new CircularOrbit(new BigDecimal(1000), new Angle(5)),
+				new CircularOrbit(new BigDecimal(1500), new Angle(7)),
+				new EllipticalOrbit(new BigDecimal(800), 0.3, new Angle(2)));
+	}
+
+	@Test
+	public void evaluatesSingleDaysAsTheForecast() {
+		Orbit[] orbits = SolarSystem.createDefault().getOrbits();
+		WeatherCondition[] conditions = WeatherForecaster.forecastRange(GeometryMode.BIG_DECIMAL,
+				ForkJoinPool.commonPool(), STAR_POSITION, 0, DAYS, orbits);
+
+		for (int day = 0; day < DAYS; day += 37) {
+			assertEquals("Day " + day, conditions[day],
+					WeatherForecaster.getWeatherCondition(GeometryMode.DOUBLE, STAR_POSITION, day, orbits));
+		}
+	}
+
+	private static void assertSameWeather(Orbit... orbits) {
+		WeatherCondition[] exact = WeatherForecaster.forecastRange(GeometryMode.BIG_DECIMAL,
+				ForkJoinPool.commonPool(), STAR_POSITION, 0, DAYS, orbits);
+		WeatherCondition[] approximate = WeatherForecaster.forecastRange(GeometryMode.DOUBLE,
+				ForkJoinPool.commonPool(), STAR_POSITION, 0, DAYS, orbits);
+
+		assertArrayEquals(exact, approximate);
+	}
+
+}
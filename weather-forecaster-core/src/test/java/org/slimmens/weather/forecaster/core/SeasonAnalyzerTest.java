@@ -0,0 +1,127 @@
+package org.slimmens.weather.forecaster.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.slimmens.weather.forecaster.core.WeatherCondition.DROUGHT;
+import static org.slimmens.weather.forecaster.core.WeatherCondition.NONE;
+import static org.slimmens.weather.forecaster.core.WeatherCondition.RAIN;
+import static org.slimmens.weather.forecaster.core.WeatherCondition.RAIN_PICK;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Checks that merging the analysis of consecutive ranges finds the same
+ * seasons as analyzing the days in a single pass.
+ *
+ * @author Nicols Martn
+ */
+public class SeasonAnalyzerTest {
+
+	private static final WeatherCondition[] DAYS = { RAIN, RAIN_PICK, RAIN, RAIN_PICK, RAIN_PICK, NONE, RAIN_PICK };
+
+	@Test
+	public void joinsRainPicksToTheirSeason() {
+		List<Season> seasons = analyze(DAYS);
+
+		assertEquals(3, seasons.size());
+		assertSeason(seasons.get(0), RAIN, 0, 4, 1, 3, 4);
+		assertSeason(seasons.get(1), NONE, 5, 5);
+		assertSeason(seasons.get(2), RAIN, 6, 6, 6);
+	}
+
+	@Test
+	public void mergesAtEverySplit() {
+		List<String> expected = describe(analyze(DAYS));
+
+		for (int split = 0; split <= DAYS.length; split++) {
+			assertEquals("Split at " + split, expected, describe(analyze(DAYS, split)));
+		}
+	}
+
+	@Test
+	public void mergesRandomRanges() {
+		WeatherCondition[] conditions = { NONE, RAIN, RAIN_PICK, DROUGHT };
+		Random random = new Random(7);
+
+		for (int iteration = 0; iteration < 200; iteration++) {
+			WeatherCondition[] days = new WeatherCondition[1 + random.nextInt(60)];
+			for (int day = 0; day < days.length; day++) {
+				days[day] = conditions[random.nextInt(conditions.length)];
+			}
+
+			int first = random.nextInt(days.length + 1);
+			int second = first + random.nextInt(days.length - first + 1);
+
+			assertEquals(describe(analyze(days)), describe(analyze(days, first, second)));
+		}
+	}
+
+	@Test
+	public void countsSeasonsAndPicksOfMergedRanges() {
+		SeasonAnalyzer whole = new SeasonAnalyzer(season -> {
+		});
+		for (WeatherCondition condition : DAYS) {
+			whole.accept(condition);
+		}
+
+		SeasonAnalyzer first = new SeasonAnalyzer(season -> {
+		});
+		SeasonAnalyzer second = new SeasonAnalyzer(2, true, season -> {
+		});
+		for (int day = 0; day < DAYS.length; day++) {
+			(day < 2 ? first : second).accept(DAYS[day]);
+		}
+		first.merge(second);
+
+		assertEquals(whole.getRainPicks(), first.getRainPicks());
+		assertEquals(whole.getEndDay(), first.getEndDay());
+		for (WeatherCondition condition : WeatherCondition.values()) {
+			assertEquals(whole.getSeasonCount(condition), first.getSeasonCount(condition));
+		}
+	}
+
+	/*
+	 * Analyzes the days in consecutive ranges that start at the given days,
+	 * merging them in order.
+	 */
+	private static List<Season> analyze(WeatherCondition[] days, int... splits) {
+		List<Season> seasons = new ArrayList<>();
+		SeasonAnalyzer analyzer = new SeasonAnalyzer(seasons::add);
+
+		int day = 0;
+		for (int split = 0; split <= splits.length; split++) {
+			int end = split < splits.length ? splits[split] : days.length;
+			SeasonAnalyzer range = split == 0 ? analyzer : new SeasonAnalyzer(day, true, seasons::add);
+			for (; day < end; day++) {
+				range.accept(days[day]);
+			}
+
+			if (range != analyzer) {
+				analyzer.merge(range);
+			}
+		}
+		analyzer.finish();
+
+		seasons.sort(Comparator.comparingLong(Season::getStartDay));
+		return seasons;
+	}
+
+	private static List<String> describe(List<Season> seasons) {
+		return seasons.stream().map(Season::toString).collect(Collectors.toList());
+	}
+
+	private static void assertSeason(Season season, WeatherCondition condition, long startDay, long endDay,
+			long... pickDays) {
+		assertEquals(condition, season.getCondition());
+		assertEquals(startDay, season.getStartDay());
+		assertEquals(endDay, season.getEndDay());
+		assertArrayEquals(pickDays, season.getPickDays());
+	}
+
+}
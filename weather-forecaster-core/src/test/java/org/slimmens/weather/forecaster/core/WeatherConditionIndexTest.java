@@ -0,0 +1,90 @@
+package org.slimmens.weather.forecaster.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that rolling the window of an index forward keeps the conditions of
+ * every day, across the boundaries of its chunks.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherConditionIndexTest {
+
+	private static final WeatherCondition[] CONDITIONS = WeatherCondition.values();
+
+	@Test
+	public void keepsTheDaysOfTheWindow() {
+		Random random = new Random(7);
+
+		for (int iteration = 0; iteration < 50; iteration++) {
+			long firstDay = random.nextInt(5000);
+			List<WeatherCondition> days = new ArrayList<>(
+					Arrays.asList(createConditions(random, random.nextInt(3000))));
+			WeatherConditionIndex index = new WeatherConditionIndex(firstDay,
+					days.toArray(new WeatherCondition[0]));
+
+			for (int step = 0; step < 20; step++) {
+				if (random.nextBoolean()) {
+					WeatherCondition[] conditions = createConditions(random, random.nextInt(1500));
+					days.addAll(Arrays.asList(conditions));
+					index = index.append(conditions);
+				} else {
+					int dropped = Math.min(random.nextInt(days.size() + 2), days.size());
+					firstDay += dropped;
+					days = new ArrayList<>(days.subList(dropped, days.size()));
+					index = index.from(firstDay);
+				}
+
+				assertDays(firstDay, days, index);
+			}
+		}
+	}
+
+	@Test
+	public void returnsTheOrdinalsOfARange() {
+		WeatherCondition[] conditions = createConditions(new Random(11), 3 * WeatherConditionIndex.CHUNK_DAYS);
+		WeatherConditionIndex index = new WeatherConditionIndex(100, conditions).from(700);
+
+		ByteBuffer ordinals = index.getOrdinals(1000, 2500);
+
+		assertEquals(1500, ordinals.remaining());
+		for (int day = 1000; day < 2500; day++) {
+			assertEquals(conditions[day - 100].ordinal(), ordinals.get());
+		}
+	}
+
+	private static WeatherCondition[] createConditions(Random random, int days) {
+		WeatherCondition[] conditions = new WeatherCondition[days];
+		for (int day = 0; day < conditions.length; day++) {
+			conditions[day] = CONDITIONS[random.nextInt(CONDITIONS.length)];
+		}
+
+		return conditions;
+	}
+
+	private static void assertDays(long firstDay, List<WeatherCondition> days, WeatherConditionIndex index) {
+		assertEquals(firstDay, index.getFirstDay());
+		assertEquals(days.size(), index.getHorizon());
+		assertFalse(index.contains(firstDay - 1));
+		assertFalse(index.contains(firstDay + days.size()));
+
+		for (int day = 0; day < days.size(); day++) {
+			assertEquals(days.get(day), index.getCondition(firstDay + day));
+		}
+
+		for (WeatherCondition condition : CONDITIONS) {
+			assertEquals(days.stream().filter(condition::equals).count(), index.getDayCount(condition));
+		}
+		assertEquals(days.size(), index.getOrdinals().remaining());
+	}
+
+}
@@ -0,0 +1,114 @@
+package org.slimmens.weather.forecaster.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the weather events solved in continuous time against the conditions
+ * forecast day by day.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherEventSolverTest {
+
+	private static final int HORIZON = 3600;
+
+	private static final double TOLERANCE = 1e-6;
+
+	private WeatherCondition[] conditions;
+
+	private List<WeatherEvent> events;
+
+	@Before
+	public void setUp() {
+		SolarSystem solarSystem = SolarSystem.createDefault();
+		Orbit[] orbits = solarSystem.getOrbits();
+
+		CircularOrbit[] circularOrbits = new CircularOrbit[orbits.length];
+		for (int i = 0; i < orbits.length; i++) {
+			circularOrbits[i] = (CircularOrbit) orbits[i];
+		}
+
+		conditions = WeatherForecaster.forecastRange(solarSystem.getStarPosition(), 0, HORIZON, orbits);
+		events = WeatherEventSolver.solve(HORIZON, circularOrbits);
+	}
+
+	@Test
+	public void solvesTheDroughtsOfTheForecast() {
+		List<Long> droughtDays = new ArrayList<>();
+		for (WeatherEvent event : getEvents(WeatherCondition.DROUGHT)) {
+			assertEquals(90 * Math.rint(event.getStart() / 90), event.getStart(), TOLERANCE);
+			if (event.getStart() < HORIZON - TOLERANCE) {
+				droughtDays.add(Math.round(event.getStart()));
+			}
+		}
+
+		assertEquals(getDays(WeatherCondition.DROUGHT), droughtDays);
+	}
+
+	@Test
+	public void solvesTheRainPeaksWithinADayOfTheRainPicks() {
+		List<WeatherEvent> rainSeasons = getEvents(WeatherCondition.RAIN);
+		List<Long> pickDays = getDays(WeatherCondition.RAIN_PICK);
+
+		assertEquals(pickDays.size(), rainSeasons.size());
+		for (int i = 0; i < pickDays.size(); i++) {
+			assertEquals(pickDays.get(i), rainSeasons.get(i).getPeak(), 1);
+		}
+	}
+
+	@Test
+	public void solvesRainSeasonsAroundTheRainDays() {
+		List<WeatherEvent> rainSeasons = getEvents(WeatherCondition.RAIN);
+
+		for (int day = 0; day < HORIZON; day++) {
+			if (conditions[day] == WeatherCondition.RAIN || conditions[day] == WeatherCondition.RAIN_PICK) {
+				int rainDay = day;
+				assertTrue("Day " + day, rainSeasons.stream()
+						.anyMatch(season -> season.getStart() <= rainDay && rainDay <= season.getEnd()));
+			}
+		}
+	}
+
+	@Test
+	public void findsAlignmentsWhereTheAreaOnlyTouchesZero() {
+		// Two still planets on the line x = 1000 and a third one on the circle
+		// of radius 1000, which only touches that line every half rotation of
+		// the third planet, so the area never changes its sign.
+		double distance = 1000;
+		List<WeatherEvent> tangentEvents = WeatherEventSolver.solve(720,
+				new double[] { distance, distance * Math.sqrt(2), distance },
+				new double[] { 0, 0, Math.toRadians(1) }, new double[] { 0, Math.PI / 4, Math.PI });
+
+		List<WeatherEvent> alignments = tangentEvents.stream()
+				.filter(event -> event.getCondition() == WeatherCondition.OPTIMAL_PRESSURE_AND_TEMP)
+				.collect(Collectors.toList());
+
+		assertEquals(2, alignments.size());
+		assertEquals(180, alignments.get(0).getStart(), TOLERANCE);
+		assertEquals(540, alignments.get(1).getStart(), TOLERANCE);
+	}
+
+	private List<WeatherEvent> getEvents(WeatherCondition condition) {
+		return events.stream().filter(event -> event.getCondition() == condition).collect(Collectors.toList());
+	}
+
+	private List<Long> getDays(WeatherCondition condition) {
+		List<Long> days = new ArrayList<>();
+		for (int day = 0; day < HORIZON; day++) {
+			if (conditions[day] == condition) {
+				days.add((long) day);
+			}
+		}
+
+		return days;
+	}
+
+}
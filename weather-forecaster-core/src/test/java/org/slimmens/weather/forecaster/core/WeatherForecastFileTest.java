@@ -0,0 +1,159 @@
+package org.slimmens.weather.forecaster.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slimmens.weather.forecaster.core.math.Angle;
+import org.slimmens.weather.forecaster.core.math.Point;
+
+/**
+ * Checks that the forecast files are read back as written, and that the ones
+ * written for other solar systems or weather rules, or corrupt, are rejected.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherForecastFileTest {
+
+	private static final int HORIZON = 4000;
+
+	/*
+	 * The position of the rules version in the header.
+	 */
+	private static final int RULES_VERSION_POSITION = 20;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private SolarSystem solarSystem;
+
+	private WeatherConditionIndex index;
+
+	private Path path;
+
+	@Before
+	public void setUp() {
+		solarSystem = SolarSystem.createDefault();
+		index = WeatherConditionIndex.of(WeatherForecaster.forecast(solarSystem, HORIZON));
+		path = folder.getRoot().toPath().resolve("forecast.bin");
+	}
+
+	@Test
+	public void readsNothingWhenTheFileDoesNotExist() throws IOException {
+		assertFalse(WeatherForecastFile.read(path, solarSystem, 0, HORIZON).isPresent());
+	}
+
+	@Test
+	public void readsTheWrittenDays() throws IOException {
+		WeatherForecastFile.write(path, solarSystem, index);
+
+		WeatherConditionIndex read = WeatherForecastFile.read(path, solarSystem, 0, HORIZON).get();
+
+		assertSameDays(index, read);
+	}
+
+	@Test
+	public void readsTheDaysFromTheFirstOneRequired() throws IOException {
+		WeatherForecastFile.write(path, solarSystem, index);
+
+		WeatherConditionIndex read = WeatherForecastFile.read(path, solarSystem, 1500, HORIZON).get();
+
+		assertEquals(1500, read.getFirstDay());
+		assertSameDays(index.from(1500), read);
+	}
+
+	@Test
+	public void acceptsTheSameSystemWithOtherScales() throws IOException {
+		WeatherForecastFile.write(path, solarSystem, index);
+
+		SolarSystem sameSystem = new SolarSystem("Same",
+				new Point(new BigDecimal("0.000"), new BigDecimal("0")), getPlanets());
+
+		assertTrue(WeatherForecastFile.read(path, sameSystem, 0, HORIZON).isPresent());
+	}
+
+	@Test
+	public void rejectsOtherSolarSystems() throws IOException {
+		WeatherForecastFile.write(path, solarSystem, index);
+
+		Planet[] planets = getPlanets();
+		planets[0] = new Planet("Other", new CircularOrbit(new BigDecimal(500), new Angle(358)));
+		SolarSystem otherSystem = new SolarSystem("Other", solarSystem.getStarPosition(), planets);
+
+		assertFalse(WeatherForecastFile.read(path, otherSystem, 0, HORIZON).isPresent());
+	}
+
+	@Test
+	public void rejectsCorruptDays() throws IOException {
+		WeatherForecastFile.write(path, solarSystem, index);
+
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[WeatherForecastFile.HEADER_SIZE + 100] ^= 1;
+		Files.write(path, bytes);
+
+		assertFalse(WeatherForecastFile.read(path, solarSystem, 0, HORIZON).isPresent());
+	}
+
+	@Test
+	public void rejectsOtherWeatherRules() throws IOException {
+		WeatherForecastFile.write(path, solarSystem, index);
+
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[RULES_VERSION_POSITION + 3] ^= 1;
+		Files.write(path, bytes);
+
+		assertFalse(WeatherForecastFile.read(path, solarSystem, 0, HORIZON).isPresent());
+	}
+
+	@Test
+	public void appendsTheNewDays() throws IOException {
+		WeatherForecastFile.write(path, solarSystem, index);
+
+		WeatherConditionIndex rolled = index;
+		for (long day = 1; day <= 50; day++) {
+			rolled = rolled.from(day).append(new WeatherCondition[] {
+					WeatherForecaster.getWeatherCondition(solarSystem.getStarPosition(), HORIZON + day - 1,
+							solarSystem.getOrbits()) });
+			WeatherForecastFile.append(path, solarSystem, rolled);
+		}
+
+		WeatherConditionIndex read = WeatherForecastFile.read(path, solarSystem, 50, HORIZON + 50).get();
+
+		assertSameDays(rolled, read);
+		assertSameDays(WeatherConditionIndex.of(WeatherForecaster.forecast(solarSystem, HORIZON + 50)).from(50),
+				read);
+	}
+
+	@Test
+	public void writesTheWholeFileWhenItCanNotBeAppended() throws IOException {
+		WeatherForecastFile.append(path, solarSystem, index.from(2000));
+
+		Optional<WeatherConditionIndex> read = WeatherForecastFile.read(path, solarSystem, 2000, HORIZON);
+
+		assertTrue(read.isPresent());
+		assertSameDays(index.from(2000), read.get());
+	}
+
+	private Planet[] getPlanets() {
+		return solarSystem.getPlanets().toArray(new Planet[0]);
+	}
+
+	private static void assertSameDays(WeatherConditionIndex expected, WeatherConditionIndex actual) {
+		assertEquals(expected.getFirstDay(), actual.getFirstDay());
+		assertEquals(expected.getHorizon(), actual.getHorizon());
+		for (long day = expected.getFirstDay(); day < expected.getEndDay(); day++) {
+			assertEquals("Day " + day, expected.getCondition(day), actual.getCondition(day));
+		}
+	}
+
+}
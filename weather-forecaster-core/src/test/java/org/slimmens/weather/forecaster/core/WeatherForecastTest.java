@@ -0,0 +1,72 @@
+package org.slimmens.weather.forecaster.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Checks that the forecast of a periodic solar system, which only evaluates
+ * one cycle, covers the horizon with the weather of every day.
+ *
+ * @author Nicols Martn
+ */
+public class WeatherForecastTest {
+
+	private static final int HORIZON = 3653;
+
+	@Test
+	public void storesOneCycleOfThePeriodicSystems() {
+		SolarSystem solarSystem = SolarSystem.createDefault();
+
+		WeatherForecast forecast = WeatherForecaster.forecast(solarSystem, HORIZON);
+
+		assertTrue(forecast.isPeriodic());
+		assertEquals(PeriodAnalyzer.getJointPeriod(solarSystem.getOrbits()).getAsLong(), forecast.getPeriod());
+		assertEquals(HORIZON, forecast.getHorizon());
+	}
+
+	@Test
+	public void forecastsThePeriodicSystemsDayByDay() {
+		SolarSystem solarSystem = SolarSystem.createDefault();
+		WeatherCondition[] conditions = WeatherForecaster.forecastRange(solarSystem.getStarPosition(), 0, HORIZON,
+				solarSystem.getOrbits());
+
+		WeatherForecast forecast = WeatherForecaster.forecast(solarSystem, HORIZON);
+
+		for (int day = 0; day < HORIZON; day++) {
+			assertEquals("Day " + day, conditions[day], forecast.getCondition(day));
+		}
+	}
+
+	@Test
+	public void tilesTheCycleOverRanges() {
+		SolarSystem solarSystem = SolarSystem.createDefault();
+		WeatherCondition[] conditions = WeatherForecaster.forecastRange(solarSystem.getStarPosition(), 0, HORIZON,
+				solarSystem.getOrbits());
+
+		WeatherForecast forecast = WeatherForecaster.forecast(solarSystem, HORIZON);
+
+		assertArrayEquals(conditions, forecast.getConditions(0, HORIZON));
+		assertArrayEquals(Arrays.copyOfRange(conditions, 350, 1500), forecast.getConditions(350, 1150));
+		assertArrayEquals(Arrays.copyOfRange(conditions, HORIZON - 10, HORIZON),
+				forecast.getConditions(HORIZON - 10, 10));
+	}
+
+	@Test
+	public void forecastsTheWholeHorizonWhenItIsShorterThanThePeriod() {
+		SolarSystem solarSystem = SolarSystem.createDefault();
+
+		WeatherForecast forecast = WeatherForecaster.forecast(solarSystem, 300);
+
+		assertFalse(forecast.isPeriodic());
+		assertArrayEquals(
+				WeatherForecaster.forecastRange(solarSystem.getStarPosition(), 0, 300, solarSystem.getOrbits()),
+				forecast.getConditions(0, 300));
+	}
+
+}
@@ -0,0 +1,78 @@
+package org.slimmens.weather.forecaster.model.entities;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class WeatherForecastStatus implements Serializable {
+
+	private static final long serialVersionUID = 5170351826463071293L;
+
+	@JsonProperty(value = "listo")
+	private boolean ready;
+
+	@JsonProperty(value = "fallido")
+	private boolean failed;
+
+	@JsonProperty(value = "dasCalculados")
+	private long availableDays;
+
+	@JsonProperty(value = "dasTotales")
+	private long horizon;
+
+	public WeatherForecastStatus() {
+		super();
+	}
+
+	public WeatherForecastStatus(boolean ready, boolean failed, long availableDays, long horizon) {
+		super();
+		this.ready = ready;
+		this.failed = failed;
+		this.availableDays = availableDays;
+		this.horizon = horizon;
+	}
+
+	@JsonProperty(value = "progreso")
+	public double getProgress() {
+		return horizon == 0 ? 0 : 100.0 * availableDays / horizon;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public void setReady(boolean ready) {
+		this.ready = ready;
+	}
+
+	public boolean isFailed() {
+		return failed;
+	}
+
+	public void setFailed(boolean failed) {
+		this.failed = failed;
+	}
+
+	public long getAvailableDays() {
+		return availableDays;
+	}
+
+	public void setAvailableDays(long availableDays) {
+		this.availableDays = availableDays;
+	}
+
+	public long getHorizon() {
+		return horizon;
+	}
+
+	public void setHorizon(long horizon) {
+		this.horizon = horizon;
+	}
+
+	@Override
+	public String toString() {
+		return "WeatherForecastStatus [ready=" + ready + ", failed=" + failed + ", availableDays=" + availableDays
+				+ ", horizon=" + horizon + "]";
+	}
+
+}
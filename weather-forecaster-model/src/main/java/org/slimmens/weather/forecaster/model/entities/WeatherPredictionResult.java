@@ -0,0 +1,82 @@
+package org.slimmens.weather.forecaster.model.entities;
+
+import java.io.Serializable;
+
+import org.slimmens.weather.forecaster.core.WeatherCondition;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class WeatherPredictionResult implements Serializable {
+
+	private static final long serialVersionUID = -6044186370551720983L;
+
+	@JsonProperty(value = "da")
+	private long day;
+
+	@JsonProperty(value = "encontrado")
+	private boolean found;
+
+	@JsonProperty(value = "clima")
+	private WeatherCondition condition;
+
+	/*
+	 * Whether the day was not found because it is not computed yet.
+	 */
+	@JsonProperty(value = "pendiente")
+	private boolean pending;
+
+	public WeatherPredictionResult() {
+		super();
+	}
+
+	public WeatherPredictionResult(long day, WeatherCondition condition) {
+		this(day, condition, false);
+	}
+
+	public WeatherPredictionResult(long day, WeatherCondition condition, boolean pending) {
+		super();
+		this.day = day;
+		this.found = condition != null;
+		this.condition = condition;
+		this.pending = pending;
+	}
+
+	public long getDay() {
+		return day;
+	}
+
+	public void setDay(long day) {
+		this.day = day;
+	}
+
+	public boolean isFound() {
+		return found;
+	}
+
+	public void setFound(boolean found) {
+		this.found = found;
+	}
+
+	public WeatherCondition getCondition() {
+		return condition;
+	}
+
+	public void setCondition(WeatherCondition condition) {
+		this.condition = condition;
+	}
+
+	public boolean isPending() {
+		return pending;
+	}
+
+	public void setPending(boolean pending) {
+		this.pending = pending;
+	}
+
+	@Override
+	public String toString() {
+		return "WeatherPredictionResult [day=" + day + ", found=" + found + ", condition=" + condition + ", pending="
+				+ pending + "]";
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.slimmens.weather.forecaster.model.entities;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class WeatherPredictionsCacheStatistics implements Serializable {
+
+	private static final long serialVersionUID = 2230960215946395874L;
+
+	@JsonProperty(value = "aciertos")
+	private long hits;
+
+	@JsonProperty(value = "fallos")
+	private long misses;
+
+	@JsonProperty(value = "bsquedasCompartidas")
+	private long coalescedLookups;
+
+	@JsonProperty(value = "desalojos")
+	private long evictions;
+
+	@JsonProperty(value = "entradas")
+	private int size;
+
+	@JsonProperty(value = "capacidad")
+	private int capacity;
+
+	@JsonProperty(value = "calculadosADemanda")
+	private long computedDays;
+
+	public WeatherPredictionsCacheStatistics() {
+		super();
+	}
+
+	public WeatherPredictionsCacheStatistics(long hits, long misses, long coalescedLookups, long evictions, int size,
+			int capacity, long computedDays) {
+		super();
+		this.hits = hits;
+		this.misses = misses;
+		this.coalescedLookups = coalescedLookups;
+		this.evictions = evictions;
+		this.size = size;
+		this.capacity = capacity;
+		this.computedDays = computedDays;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public void setHits(long hits) {
+		this.hits = hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public void setMisses(long misses) {
+		this.misses = misses;
+	}
+
+	public long getCoalescedLookups() {
+		return coalescedLookups;
+	}
+
+	public void setCoalescedLookups(long coalescedLookups) {
+		this.coalescedLookups = coalescedLookups;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public void setEvictions(long evictions) {
+		this.evictions = evictions;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public long getComputedDays() {
+		return computedDays;
+	}
+
+	public void setComputedDays(long computedDays) {
+		this.computedDays = computedDays;
+	}
+
+	@Override
+	public String toString() {
+		return "WeatherPredictionsCacheStatistics [hits=" + hits + ", misses=" + misses + ", coalescedLookups="
+				+ coalescedLookups + ", evictions=" + evictions + ", size=" + size + ", capacity=" + capacity
+				+ ", computedDays=" + computedDays + "]";
+	}
+
+}
@@ -0,0 +1,127 @@
+package org.slimmens.weather.forecaster.model.entities;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.OrderBy;
+import javax.persistence.Table;
+
+import org.slimmens.weather.forecaster.core.WeatherCondition;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "WEATHER_SEASONS")
+public class WeatherSeason implements Serializable {
+
+	private static final long serialVersionUID = 5311283463245817702L;
+
+	@Id
+	@Column(name = "START_DAY", nullable = false, unique = true)
+	@JsonProperty(value = "daDeInicio")
+	private long startDay;
+
+	@Column(name = "END_DAY", nullable = false)
+	@JsonProperty(value = "daDeFin")
+	private long endDay;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "CONDITION", nullable = false)
+	@JsonProperty(value = "clima")
+	private WeatherCondition condition;
+
+	/*
+	 * Every rain pick of the season, not only the first one.
+	 */
+	@ElementCollection(fetch = FetchType.EAGER)
+	@CollectionTable(name = "WEATHER_SEASON_PICKS", joinColumns = @JoinColumn(name = "START_DAY"))
+	@Column(name = "PICK_DAY", nullable = false)
+	@OrderBy
+	@JsonProperty(value = "dasDePico")
+	private List<Long> pickDays = new ArrayList<>();
+
+	@CreatedDate
+	@Column(name = "CREATED_AT", nullable = false)
+	@JsonProperty(value = "fechaDeCreacin")
+	private Date createdAt;
+
+	@LastModifiedDate
+	@Column(name = "UPDATED_AT", nullable = false)
+	@JsonProperty(value = "fechaDeModificacin")
+	private Date updatedAt;
+
+	public boolean contains(long day) {
+		return day >= startDay && day <= endDay;
+	}
+
+	public long getStartDay() {
+		return startDay;
+	}
+
+	public void setStartDay(long startDay) {
+		this.startDay = startDay;
+	}
+
+	public long getEndDay() {
+		return endDay;
+	}
+
+	public void setEndDay(long endDay) {
+		this.endDay = endDay;
+	}
+
+	public WeatherCondition getCondition() {
+		return condition;
+	}
+
+	public void setCondition(WeatherCondition condition) {
+		this.condition = condition;
+	}
+
+	public List<Long> getPickDays() {
+		return pickDays;
+	}
+
+	public void setPickDays(List<Long> pickDays) {
+		this.pickDays = pickDays;
+	}
+
+	public Date getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Date createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public Date getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Date updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "WeatherSeason [startDay=" + startDay + ", endDay=" + endDay + ", condition=" + condition
+				+ ", pickDays=" + pickDays + ", createdAt=" + createdAt + ", updatedAt=" + updatedAt + "]";
+	}
+
+}
@@ -0,0 +1,12 @@
+package org.slimmens.weather.forecaster.model.repositories;
+
+import java.util.Optional;
+
+import org.slimmens.weather.forecaster.model.entities.WeatherSeason;
+import org.springframework.data.repository.PagingAndSortingRepository;
+
+public interface WeatherSeasonsRepository extends PagingAndSortingRepository<WeatherSeason, Long> {
+
+	Optional<WeatherSeason> findFirstByStartDayLessThanEqualOrderByStartDayDesc(long day);
+
+}
@@ -1,10 +1,19 @@
 package org.slimmens.weather.forecaster.service.configs;
 
+import org.slimmens.weather.forecaster.core.SolarSystem;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
 @Import({ PersistenceConfiguration.class, WebConfiguration.class })
 public class ApplicationConfiguration {
 
+	@Bean
+	public SolarSystem solarSystem() {
+		return SolarSystem.createDefault();
+	}
+
 }
@@ -0,0 +1,38 @@
+package org.slimmens.weather.forecaster.service.controllers;
+
+import org.slimmens.weather.forecaster.model.entities.WeatherForecastStatus;
+import org.slimmens.weather.forecaster.model.entities.WeatherPredictionsCacheStatistics;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsCache;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+@RequestMapping("/estado")
+public class WeatherForecastStatusController {
+
+	@Autowired
+	private WeatherPredictionsIndex weatherPredictionsIndex;
+
+	@Autowired
+	private WeatherPredictionsCache weatherPredictionsCache;
+
+	@RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<WeatherForecastStatus> getStatus() {
+		WeatherForecastStatus status = weatherPredictionsIndex.getStatus();
+		return new ResponseEntity<>(status, status.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	@RequestMapping(path = "/cache", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public WeatherPredictionsCacheStatistics getCacheStatistics() {
+		return weatherPredictionsCache.getStatistics();
+	}
+
+}
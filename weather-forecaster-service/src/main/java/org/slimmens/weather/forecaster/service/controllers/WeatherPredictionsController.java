@@ -1,34 +1,76 @@
 package org.slimmens.weather.forecaster.service.controllers;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.log4j.Logger;
+import org.slimmens.weather.forecaster.core.WeatherCondition;
+import org.slimmens.weather.forecaster.core.WeatherConditionIndex;
 import org.slimmens.weather.forecaster.model.entities.WeatherPrediction;
-import org.slimmens.weather.forecaster.model.repositories.WeatherPredictionsRepository;
+import org.slimmens.weather.forecaster.model.entities.WeatherPredictionResult;
 import org.slimmens.weather.forecaster.service.exceptions.BadRequestException;
 import org.slimmens.weather.forecaster.service.exceptions.NotFoundException;
+import org.slimmens.weather.forecaster.service.exceptions.ServiceUnavailableException;
+import org.slimmens.weather.forecaster.service.indexes.OnDemandWeatherPredictions;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsCache;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsCache.CachedWeatherPrediction;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsIndex;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsIndex.Snapshot;
 import org.slimmens.weather.forecaster.service.utils.Log;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @Controller
 @RequestMapping("/clima")
 public class WeatherPredictionsController {
 
+	private static final int MAXIMUM_BATCH_SIZE = 10000;
+
+	/*
+	 * The maximum amount of different days of a batch that are neither in
+	 * the index nor a whole period away from it, as each one is computed on
+	 * the thread of the request.
+	 */
+	private static final int MAXIMUM_COMPUTED_DAYS = 1000;
+
 	@Log
 	private Logger log;
 
 	@Autowired
-	private WeatherPredictionsRepository weatherPredictionsRepository;
+	private WeatherPredictionsIndex weatherPredictionsIndex;
+
+	@Autowired
+	private WeatherPredictionsCache weatherPredictionsCache;
+
+	@Autowired
+	private OnDemandWeatherPredictions onDemandWeatherPredictions;
+
+	@Autowired
+	private ObjectMapper objectMapper;
 
 	@RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-	@ResponseBody
-	public WeatherPrediction getWeatherPrediction(@RequestParam("dia") long day) {
+	public ResponseEntity<byte[]> getWeatherPrediction(@RequestParam("dia") long day, WebRequest request) {
 		log.info(String.format("Getting the weather prediction for the day %d...", day));
 		
 		if (day < 0) {
@@ -37,14 +79,126 @@ public class WeatherPredictionsController {
 			throw new BadRequestException(message);
 		}
 
-		Optional<WeatherPrediction> weatherPrediction = weatherPredictionsRepository.findById(day);
-		if (!weatherPrediction.isPresent()) {
+		Optional<CachedWeatherPrediction> weatherPrediction = weatherPredictionsCache.get(day);
+		if (!weatherPrediction.isPresent() && !weatherPredictionsIndex.isReady()) {
+			String message = "The prediction for the given day has not been computed yet.";
+			log.warn(message);
+			throw new ServiceUnavailableException(message);
+		} else if (!weatherPrediction.isPresent()) {
 			String message = "Unable to find a prediction for the given day.";
 			log.error(message);
 			throw new NotFoundException(message);
 		}
 
-		return weatherPrediction.get();
+		// A repeated request is answered without serializing the prediction
+		// again, or without a body at all if the client still has it.
+		if (request.checkNotModified(weatherPrediction.get().getETag())) {
+			return null;
+		}
+
+		return ResponseEntity.ok().cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+				.contentType(MediaType.APPLICATION_JSON_UTF8).body(weatherPrediction.get().getBody());
+	}
+
+	@RequestMapping(path = "/rango", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public void getWeatherPredictions(@RequestParam("desde") long fromDay, @RequestParam("hasta") long toDay,
+			HttpServletResponse response) throws IOException {
+		log.info(String.format("Getting the weather predictions from the day %d to the day %d...", fromDay, toDay));
+
+		if (fromDay < 0 || toDay < fromDay) {
+			String message = "The required range must not be negative nor end before it starts.";
+			log.error(message);
+			throw new BadRequestException(message);
+		}
+
+		Snapshot snapshot = weatherPredictionsIndex.getSnapshot();
+		WeatherConditionIndex index = snapshot.getIndex();
+		if (index == null || !index.contains(fromDay) || !index.contains(toDay)) {
+			String message = "Unable to find predictions for the whole given range.";
+			log.error(message);
+			if (!snapshot.isReady()) {
+				throw new ServiceUnavailableException(message);
+			}
+			throw new NotFoundException(message);
+		}
+
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+
+		// A single prediction is reused for every day, so the memory does not
+		// depend on the length of the range, and the output is only flushed
+		// when the buffer of the generator fills up.
+		ObjectWriter writer = objectMapper.writerFor(WeatherPrediction.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		WeatherPrediction weatherPrediction = new WeatherPrediction(fromDay, index.getCondition(fromDay),
+				snapshot.getCreatedAt());
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+			generator.writeStartArray();
+			for (long day = fromDay; day <= toDay; day++) {
+				weatherPrediction.setDay(day);
+				weatherPrediction.setCondition(index.getCondition(day));
+				writer.writeValue(generator, weatherPrediction);
+			}
+			generator.writeEndArray();
+		}
+	}
+
+	@RequestMapping(path = "/lote", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public List<WeatherPredictionResult> getWeatherPredictions(@RequestBody List<Long> days) {
+		log.info(String.format("Getting the weather predictions for %d days...", days.size()));
+
+		if (days.size() > MAXIMUM_BATCH_SIZE) {
+			String message = String.format("At most %d days can be required at once.", MAXIMUM_BATCH_SIZE);
+			log.error(message);
+			throw new BadRequestException(message);
+		}
+
+		// The days of the index, or a whole period away from them, are looked
+		// up in the same snapshot of it. The days of the window that are not
+		// computed yet are marked as pending, and the other ones are computed
+		// on demand without going through the cache of single days.
+		Snapshot snapshot = weatherPredictionsIndex.getSnapshot();
+		WeatherConditionIndex index = snapshot.getIndex();
+		WeatherCondition[] conditions = new WeatherCondition[days.size()];
+		Map<Long, WeatherCondition> computedConditions = new HashMap<>();
+		for (int i = 0; i < conditions.length; i++) {
+			Long day = days.get(i);
+			if (day == null) {
+				String message = "The required days must not be null.";
+				log.error(message);
+				throw new BadRequestException(message);
+			}
+
+			if (index != null && index.contains(day)) {
+				conditions[i] = index.getCondition(day);
+			} else {
+				conditions[i] = onDemandWeatherPredictions.findCondition(day, index).orElse(null);
+				if (conditions[i] == null && !snapshot.isPending(day) && onDemandWeatherPredictions.isEnabled()
+						&& day >= 0) {
+					computedConditions.put(day, null);
+				}
+			}
+		}
+
+		if (computedConditions.size() > MAXIMUM_COMPUTED_DAYS) {
+			String message = String.format("At most %d days out of the stored ones can be required at once.",
+					MAXIMUM_COMPUTED_DAYS);
+			log.error(message);
+			throw new BadRequestException(message);
+		}
+
+		computedConditions.replaceAll((day, condition) -> onDemandWeatherPredictions.computeCondition(day));
+
+		List<WeatherPredictionResult> results = new ArrayList<>(conditions.length);
+		for (int i = 0; i < conditions.length; i++) {
+			long day = days.get(i);
+			WeatherCondition condition = conditions[i] != null ? conditions[i] : computedConditions.get(day);
+			results.add(new WeatherPredictionResult(day, condition, condition == null && snapshot.isPending(day)));
+		}
+
+		return results;
 	}
 
 }
@@ -0,0 +1,68 @@
+package org.slimmens.weather.forecaster.service.controllers;
+
+import java.util.Optional;
+
+import org.apache.log4j.Logger;
+import org.slimmens.weather.forecaster.core.WeatherConditionIndex;
+import org.slimmens.weather.forecaster.model.entities.WeatherSeason;
+import org.slimmens.weather.forecaster.model.repositories.WeatherSeasonsRepository;
+import org.slimmens.weather.forecaster.service.exceptions.BadRequestException;
+import org.slimmens.weather.forecaster.service.exceptions.NotFoundException;
+import org.slimmens.weather.forecaster.service.exceptions.ServiceUnavailableException;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsIndex;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsIndex.Snapshot;
+import org.slimmens.weather.forecaster.service.utils.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+@RequestMapping("/temporadas")
+public class WeatherSeasonsController {
+
+	@Log
+	private Logger log;
+
+	@Autowired
+	private WeatherSeasonsRepository weatherSeasonsRepository;
+
+	@Autowired
+	private WeatherPredictionsIndex weatherPredictionsIndex;
+
+	@RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public WeatherSeason getWeatherSeason(@RequestParam("dia") long day) {
+		log.info(String.format("Getting the weather season of the day %d...", day));
+
+		if (day < 0) {
+			String message = "The required day must not be negative.";
+			log.error(message);
+			throw new BadRequestException(message);
+		}
+
+		Optional<WeatherSeason> weatherSeason = weatherSeasonsRepository
+				.findFirstByStartDayLessThanEqualOrderByStartDayDesc(day);
+		if (weatherSeason.isPresent() && weatherSeason.get().contains(day)) {
+			return weatherSeason.get();
+		}
+
+		// The seasons are stored after the days of the index are computed, so
+		// a day of the window may not have its season yet.
+		Snapshot snapshot = weatherPredictionsIndex.getSnapshot();
+		WeatherConditionIndex index = snapshot.getIndex();
+		if ((index != null && index.contains(day)) || snapshot.isPending(day)) {
+			String message = "The season of the given day has not been stored yet.";
+			log.warn(message);
+			throw new ServiceUnavailableException(message);
+		}
+
+		String message = "Unable to find a season for the given day.";
+		log.error(message);
+		throw new NotFoundException(message);
+	}
+
+}
@@ -0,0 +1,15 @@
+package org.slimmens.weather.forecaster.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 3862390811507346418L;
+
+	public ServiceUnavailableException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,92 @@
+package org.slimmens.weather.forecaster.service.indexes;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.slimmens.weather.forecaster.core.GeometryMode;
+import org.slimmens.weather.forecaster.core.PeriodAnalyzer;
+import org.slimmens.weather.forecaster.core.SolarSystem;
+import org.slimmens.weather.forecaster.core.WeatherCondition;
+import org.slimmens.weather.forecaster.core.WeatherConditionIndex;
+import org.slimmens.weather.forecaster.core.WeatherForecaster;
+import org.slimmens.weather.forecaster.model.entities.WeatherPrediction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OnDemandWeatherPredictions {
+
+	@Value("${weather.forecaster.on-demand:true}")
+	private boolean enabled;
+
+	@Autowired
+	private SolarSystem solarSystem;
+
+	@Autowired
+	private WeatherPredictionsIndex weatherPredictionsIndex;
+
+	/*
+	 * The joint period of the planets, if they have one, so a day a whole
+	 * number of periods away from a day of the index is looked up there.
+	 */
+	private OptionalLong period;
+
+	private final AtomicLong computedDays = new AtomicLong();
+
+	@PostConstruct
+	public void initialize() {
+		period = PeriodAnalyzer.getJointPeriod(solarSystem.getOrbits());
+	}
+
+	/*
+	 * Returns the prediction of a day that is not in the index. The result is
+	 * not kept, as the cache of predictions already keeps it and makes the
+	 * concurrent requests for the same day wait for a single call.
+	 */
+	public Optional<WeatherPrediction> getPrediction(long day) {
+		if (!enabled || day < 0) {
+			return Optional.empty();
+		}
+
+		WeatherCondition condition = findCondition(day, weatherPredictionsIndex.getIndex())
+				.orElseGet(() -> computeCondition(day));
+		return Optional.of(new WeatherPrediction(day, condition, new Date()));
+	}
+
+	/*
+	 * Returns the condition of a day a whole number of periods away from a day
+	 * of the given index, if there is one, without computing anything.
+	 */
+	public Optional<WeatherCondition> findCondition(long day, WeatherConditionIndex index) {
+		if (!enabled || day < 0 || !period.isPresent() || index == null) {
+			return Optional.empty();
+		}
+
+		long sameDay = index.getFirstDay() + Math.floorMod(day - index.getFirstDay(), period.getAsLong());
+		return index.contains(sameDay) ? Optional.of(index.getCondition(sameDay)) : Optional.empty();
+	}
+
+	/*
+	 * Computes the condition of a day. The primitive geometry gives the same
+	 * conditions as the exact one at a fraction of its cost.
+	 */
+	public WeatherCondition computeCondition(long day) {
+		computedDays.incrementAndGet();
+		return WeatherForecaster.getWeatherCondition(GeometryMode.DOUBLE, solarSystem.getStarPosition(), day,
+				solarSystem.getOrbits());
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public long getComputedDays() {
+		return computedDays.get();
+	}
+
+}
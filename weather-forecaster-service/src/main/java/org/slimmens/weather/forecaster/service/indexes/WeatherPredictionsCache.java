@@ -0,0 +1,217 @@
+package org.slimmens.weather.forecaster.service.indexes;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.slimmens.weather.forecaster.core.WeatherCondition;
+import org.slimmens.weather.forecaster.core.WeatherConditionIndex;
+import org.slimmens.weather.forecaster.model.entities.WeatherPrediction;
+import org.slimmens.weather.forecaster.model.entities.WeatherPredictionsCacheStatistics;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsIndex.Snapshot;
+import org.slimmens.weather.forecaster.service.utils.LeastRecentlyUsedMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Component
+public class WeatherPredictionsCache {
+
+	@Value("${weather.forecaster.cache.size:4096}")
+	private int capacity;
+
+	@Autowired
+	private WeatherPredictionsIndex weatherPredictionsIndex;
+
+	@Autowired
+	private OnDemandWeatherPredictions onDemandWeatherPredictions;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/*
+	 * The requests that missed and waited for the lookup of another request
+	 * for the same day, which are neither hits nor lookups of their own.
+	 */
+	private final AtomicLong coalescedLookups = new AtomicLong();
+
+	/*
+	 * The serialized predictions by day.
+	 */
+	private LeastRecentlyUsedMap<Long, CachedWeatherPrediction> entries;
+
+	/*
+	 * The days being looked up after a miss, so concurrent requests for the
+	 * same day wait for a single lookup.
+	 */
+	private final ConcurrentMap<Long, CompletableFuture<Optional<CachedWeatherPrediction>>> lookups =
+			new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void initialize() {
+		entries = new LeastRecentlyUsedMap<>(capacity);
+	}
+
+	/*
+	 * Returns the prediction of a day of the index or, if the index does not
+	 * have it, the one computed on demand.
+	 */
+	public Optional<CachedWeatherPrediction> get(long day) {
+		Snapshot snapshot = weatherPredictionsIndex.getSnapshot();
+		WeatherConditionIndex index = snapshot.getIndex();
+		if (index == null || !index.contains(day)) {
+			index = null;
+		}
+
+		CachedWeatherPrediction cached = getEntry(day, index);
+		if (cached != null) {
+			hits.incrementAndGet();
+			return Optional.of(cached);
+		}
+
+		CompletableFuture<Optional<CachedWeatherPrediction>> lookup = new CompletableFuture<>();
+		CompletableFuture<Optional<CachedWeatherPrediction>> running = lookups.putIfAbsent(day, lookup);
+		if (running != null) {
+			coalescedLookups.incrementAndGet();
+			return join(running);
+		}
+
+		try {
+			// The entry may have been stored between the first look and the
+			// registration of this lookup, which is removed only after storing
+			// its own entry.
+			Optional<CachedWeatherPrediction> result = Optional.ofNullable(getEntry(day, index));
+			if (result.isPresent()) {
+				hits.incrementAndGet();
+			} else {
+				misses.incrementAndGet();
+				result = createEntry(day, index, snapshot.getCreatedAt());
+				result.ifPresent(entry -> {
+					synchronized (entries) {
+						entries.put(day, entry);
+					}
+				});
+			}
+
+			lookup.complete(result);
+			return result;
+		} catch (RuntimeException e) {
+			lookup.completeExceptionally(e);
+			throw e;
+		} finally {
+			lookups.remove(day, lookup);
+		}
+	}
+
+	public WeatherPredictionsCacheStatistics getStatistics() {
+		int size;
+		synchronized (entries) {
+			size = entries.size();
+		}
+
+		return new WeatherPredictionsCacheStatistics(hits.get(), misses.get(), coalescedLookups.get(),
+				entries.getEvictions(), size, capacity, onDemandWeatherPredictions.getComputedDays());
+	}
+
+	/*
+	 * Returns the entry of the given day if it is still valid. The condition of
+	 * a day never changes, so an entry stays valid while its day can be
+	 * answered, whichever index or computation it came from.
+	 */
+	private CachedWeatherPrediction getEntry(long day, WeatherConditionIndex index) {
+		CachedWeatherPrediction cached;
+		synchronized (entries) {
+			cached = entries.get(day);
+		}
+
+		return cached != null && (index != null || onDemandWeatherPredictions.isEnabled()) ? cached : null;
+	}
+
+	/*
+	 * Creates the entry of the given day from the given index, if it has the
+	 * day, and the creation date of that same index.
+	 */
+	private Optional<CachedWeatherPrediction> createEntry(long day, WeatherConditionIndex index, Date createdAt) {
+		WeatherPrediction weatherPrediction;
+		if (index != null) {
+			weatherPrediction = new WeatherPrediction(day, index.getCondition(day), createdAt);
+		} else {
+			Optional<WeatherPrediction> computedPrediction = onDemandWeatherPredictions.getPrediction(day);
+			if (!computedPrediction.isPresent()) {
+				return Optional.empty();
+			}
+
+			weatherPrediction = computedPrediction.get();
+		}
+
+		// The ETag only depends on the day and its condition, so it survives
+		// the reloads of the index. It is weak as the creation date in the body
+		// may differ between two entries of the same day.
+		try {
+			return Optional.of(new CachedWeatherPrediction(weatherPrediction.getCondition(),
+					String.format("W/\"%d-%d\"", day, weatherPrediction.getCondition().ordinal()),
+					objectMapper.writeValueAsBytes(weatherPrediction)));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(String.format("Unable to serialize the prediction for the day %d.", day),
+					e);
+		}
+	}
+
+	/*
+	 * Waits for a lookup of another request, failing with its own exception
+	 * instead of the wrapper of the future.
+	 */
+	private static <T> T join(CompletableFuture<T> lookup) {
+		try {
+			return lookup.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw e;
+		}
+	}
+
+	public static class CachedWeatherPrediction {
+
+		private final WeatherCondition condition;
+
+		private final String eTag;
+
+		private final byte[] body;
+
+		private CachedWeatherPrediction(WeatherCondition condition, String eTag, byte[] body) {
+			this.condition = condition;
+			this.eTag = eTag;
+			this.body = body;
+		}
+
+		public WeatherCondition getCondition() {
+			return condition;
+		}
+
+		public String getETag() {
+			return eTag;
+		}
+
+		public byte[] getBody() {
+			return body;
+		}
+
+	}
+
+}
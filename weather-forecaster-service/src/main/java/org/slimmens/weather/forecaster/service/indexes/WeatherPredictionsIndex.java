@@ -0,0 +1,126 @@
+package org.slimmens.weather.forecaster.service.indexes;
+
+import java.util.Date;
+
+import org.slimmens.weather.forecaster.core.WeatherConditionIndex;
+import org.slimmens.weather.forecaster.model.entities.WeatherForecastStatus;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WeatherPredictionsIndex {
+
+	/*
+	 * The days computed so far and the window of days to be covered, which
+	 * are replaced together, so a reader never pairs an index with the
+	 * creation date or the window of another one.
+	 */
+	private volatile Snapshot snapshot = new Snapshot(null, null, 0, 0, false);
+
+	public synchronized void start(long firstDay, long endDay) {
+		Snapshot current = snapshot;
+		snapshot = new Snapshot(current.index, current.createdAt, firstDay, endDay, false);
+	}
+
+	public synchronized void load(WeatherConditionIndex index) {
+		Snapshot current = snapshot;
+		snapshot = new Snapshot(index, new Date(), current.firstDay, current.endDay, current.failed);
+	}
+
+	public synchronized void fail() {
+		Snapshot current = snapshot;
+		snapshot = new Snapshot(current.index, current.createdAt, current.firstDay, current.endDay, true);
+	}
+
+	/*
+	 * Returns the current state of the predictions, which the readers that
+	 * need more than one of its values must take once.
+	 */
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public boolean isReady() {
+		return snapshot.isReady();
+	}
+
+	public WeatherForecastStatus getStatus() {
+		return snapshot.getStatus();
+	}
+
+	public WeatherConditionIndex getIndex() {
+		return snapshot.getIndex();
+	}
+
+	public static class Snapshot {
+
+		/*
+		 * The days computed so far, which grow until covering the window.
+		 */
+		private final WeatherConditionIndex index;
+
+		private final Date createdAt;
+
+		/*
+		 * The window of days to be covered, the end day excluded.
+		 */
+		private final long firstDay;
+
+		private final long endDay;
+
+		private final boolean failed;
+
+		private Snapshot(WeatherConditionIndex index, Date createdAt, long firstDay, long endDay, boolean failed) {
+			this.index = index;
+			this.createdAt = createdAt;
+			this.firstDay = firstDay;
+			this.endDay = endDay;
+			this.failed = failed;
+		}
+
+		public boolean isReady() {
+			return index != null && endDay > 0 && index.getEndDay() >= endDay;
+		}
+
+		public long getAvailableDays() {
+			return index == null ? 0 : Math.max(Math.min(index.getEndDay(), endDay) - firstDay, 0);
+		}
+
+		public WeatherForecastStatus getStatus() {
+			return new WeatherForecastStatus(isReady(), failed, getAvailableDays(), getHorizon());
+		}
+
+		/*
+		 * Returns whether the given day is in the window but not computed yet,
+		 * so it will be answered once the index covers it.
+		 */
+		public boolean isPending(long day) {
+			return day >= firstDay && day < endDay && (index == null || day >= index.getEndDay());
+		}
+
+		public WeatherConditionIndex getIndex() {
+			return index;
+		}
+
+		public Date getCreatedAt() {
+			return createdAt;
+		}
+
+		public long getFirstDay() {
+			return firstDay;
+		}
+
+		public long getEndDay() {
+			return endDay;
+		}
+
+		public long getHorizon() {
+			return endDay - firstDay;
+		}
+
+		public boolean isFailed() {
+			return failed;
+		}
+
+	}
+
+}
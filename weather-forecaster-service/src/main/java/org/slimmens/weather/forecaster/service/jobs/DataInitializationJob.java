@@ -1,68 +1,334 @@
 package org.slimmens.weather.forecaster.service.jobs;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
-import javax.transaction.Transactional;
+import javax.annotation.PreDestroy;
 
 import org.apache.log4j.Logger;
-import org.slimmens.weather.forecaster.core.CircularOrbit;
-import org.slimmens.weather.forecaster.core.Planet;
+import org.slimmens.weather.forecaster.core.PeriodAnalyzer;
+import org.slimmens.weather.forecaster.core.SolarSystem;
 import org.slimmens.weather.forecaster.core.WeatherCondition;
+import org.slimmens.weather.forecaster.core.WeatherConditionIndex;
+import org.slimmens.weather.forecaster.core.WeatherForecastFile;
 import org.slimmens.weather.forecaster.core.WeatherForecaster;
-import org.slimmens.weather.forecaster.core.math.Angle;
-import org.slimmens.weather.forecaster.core.math.Point;
-import org.slimmens.weather.forecaster.model.entities.WeatherPrediction;
-import org.slimmens.weather.forecaster.model.repositories.WeatherPredictionsRepository;
+import org.slimmens.weather.forecaster.service.indexes.WeatherPredictionsIndex;
 import org.slimmens.weather.forecaster.service.utils.Log;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 @Component
 public class DataInitializationJob {
 
-	private static final Point SUN_POSITION = new Point();
+	/*
+	 * The minimum amount of days computed before publishing them.
+	 */
+	private static final int CHUNK_DAYS = 360;
 
-	private static final BigDecimal DISTANCE_PLANET_FERENGIS = new BigDecimal(500);
-	private static final BigDecimal DISTANCE_PLANET_BETASOIDE = new BigDecimal(2000);
-	private static final BigDecimal DISTANCE_PLANET_VULCANO = new BigDecimal(1000);
+	@Log
+	private Logger log;
+
+	@Value("${weather.forecaster.file:${java.io.tmpdir}/weather-forecast.bin}")
+	private String forecastFile;
+
+	/*
+	 * The date of the day zero, which is the start date of the service if
+	 * not given.
+	 */
+	@Value("${weather.forecaster.epoch:}")
+	private String epoch;
+
+	@Value("${weather.forecaster.horizon.years:10}")
+	private int horizonYears;
+
+	/*
+	 * Whether the days before the current one are dropped from the window.
+	 */
+	@Value("${weather.forecaster.horizon.prune:true}")
+	private boolean prune;
+
+	/*
+	 * The amount of times a failed update is retried before waiting for the
+	 * next tick, and the delay before the first retry, which doubles after
+	 * every failed one.
+	 */
+	@Value("${weather.forecaster.retry.attempts:5}")
+	private int retryAttempts;
+
+	@Value("${weather.forecaster.retry.delay.seconds:30}")
+	private long retryDelaySeconds;
+
+	@Autowired
+	private WeatherSeasonsBulkLoader weatherSeasonsBulkLoader;
+
+	@Autowired
+	private WeatherPredictionsIndex weatherPredictionsIndex;
+
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "weather-forecaster-initialization");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private LocalDate epochDate;
+
+	/*
+	 * The failed updates since the last tick, and the pending retry if there
+	 * is one, which are only used from the thread of the executor.
+	 */
+	private int failedAttempts;
+
+	private ScheduledFuture<?> retry;
+
+	/*
+	 * Whether the forecast file holds the days of the current index, so only
+	 * the new ones have to be appended to it.
+	 */
+	private boolean forecastFileCurrent;
 
-	private static final Angle ANGULAR_DISPLACEMENT_PLANET_FERENGIS = new Angle(-1);
-	private static final Angle ANGULAR_DISPLACEMENT_PLANET_BETASOIDE = new Angle(-3);
-	private static final Angle ANGULAR_DISPLACEMENT_PLANET_VULCANO = new Angle(5);
-	
 	@Autowired
-	private WeatherPredictionsRepository weatherPredictionsRepository;
+	private SolarSystem solarSystem;
 
 	@PostConstruct
-	@Transactional
-	public void run() {
-		Planet planetFerengis = new Planet("Ferengis",
-				new CircularOrbit(DISTANCE_PLANET_FERENGIS, ANGULAR_DISPLACEMENT_PLANET_FERENGIS));
-		Planet planetBetasoide = new Planet("Betasoide",
-				new CircularOrbit(DISTANCE_PLANET_BETASOIDE, ANGULAR_DISPLACEMENT_PLANET_BETASOIDE));
-		Planet planetVulcano = new Planet("Vulcano",
-				new CircularOrbit(DISTANCE_PLANET_VULCANO, ANGULAR_DISPLACEMENT_PLANET_VULCANO));
+	public void start() {
+		epochDate = StringUtils.isEmpty(epoch) ? LocalDate.now() : LocalDate.parse(epoch);
+		advance();
+	}
+
+	@Scheduled(cron = "${weather.forecaster.horizon.cron:0 5 0 * * *}")
+	public void advance() {
+		// Runs on the single thread of the executor, so a tick never overlaps
+		// the initialization, a previous tick or a retry.
+		executor.execute(() -> {
+			failedAttempts = 0;
+			update();
+		});
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+	/*
+	 * Runs an update and, if it fails, schedules a retry with an exponential
+	 * backoff, so a transient failure does not leave the service unavailable
+	 * until the next tick. An update replaces the pending retry, so there is
+	 * never more than one.
+	 */
+	private void update() {
+		if (retry != null) {
+			retry.cancel(false);
+			retry = null;
+		}
 
-		long day = 0;
+		try {
+			run();
+		} catch (Exception e) {
+			log.error("Unable to update the weather predictions.", e);
+			weatherPredictionsIndex.fail();
 
+			if (failedAttempts < retryAttempts && !executor.isShutdown()) {
+				long delay = retryDelaySeconds << failedAttempts;
+				failedAttempts++;
+				log.info(String.format("Retrying the update of the weather predictions in %d s (attempt %d of %d)...",
+						delay, failedAttempts, retryAttempts));
+				retry = executor.schedule(this::update, delay, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	/*
+	 * Moves the window of days to the current date, computing only the days
+	 * that are not already known.
+	 */
+	public void run() {
 		LocalDate currentDate = LocalDate.now();
-		LocalDate endDate = currentDate.plusYears(10);
-		while (!currentDate.isAfter(endDate)) {
-			WeatherCondition condition = WeatherForecaster.getWeatherCondition(SUN_POSITION, planetFerengis,
-					planetBetasoide, planetVulcano);
-
-			WeatherPrediction weatherPrediction = new WeatherPrediction();
-			weatherPrediction.setDay(day++);
-			weatherPrediction.setCondition(condition);
-			weatherPredictionsRepository.save(weatherPrediction);
-			
-			planetFerengis.moveFoward();
-			planetBetasoide.moveFoward();
-			planetVulcano.moveFoward();
-			currentDate = currentDate.plusDays(1);
+		long firstDay = prune ? Math.max(ChronoUnit.DAYS.between(epochDate, currentDate), 0) : 0;
+		long endDay = ChronoUnit.DAYS.between(epochDate, currentDate.plusYears(horizonYears)) + 1;
+
+		WeatherConditionIndex index = weatherPredictionsIndex.getIndex();
+		if (index != null && index.getFirstDay() <= firstDay && index.getEndDay() >= endDay) {
+			// Clears a failure left by a previous attempt.
+			weatherPredictionsIndex.start(firstDay, endDay);
+			return;
+		}
+
+		if (index == null || firstDay < index.getFirstDay() || firstDay >= index.getEndDay()) {
+			index = readIndex(firstDay, endDay);
+			forecastFileCurrent = index != null;
+			weatherPredictionsIndex.start(firstDay, endDay);
 		}
+
+		long from = index == null ? firstDay : index.getEndDay();
+		log.info(String.format("Computing the forecast from the day %d to the day %d...", from, endDay));
+		index = extendIndex(index == null ? null : index.from(firstDay), firstDay, endDay);
+		weatherPredictionsIndex.load(index);
+		weatherPredictionsIndex.start(firstDay, endDay);
+		log.info(String.format("The weather predictions from the day %d to the day %d are ready.", firstDay, endDay));
+
+		if (from < endDay) {
+			Path path = Paths.get(forecastFile);
+			try {
+				if (forecastFileCurrent) {
+					WeatherForecastFile.append(path, solarSystem, index);
+				} else {
+					WeatherForecastFile.write(path, solarSystem, index);
+				}
+
+				forecastFileCurrent = true;
+			} catch (IOException e) {
+				forecastFileCurrent = false;
+				log.warn(String.format("Unable to write the forecast file %s.", path), e);
+			}
+		}
+	}
+
+	private WeatherConditionIndex readIndex(long firstDay, long endDay) {
+		Path path = Paths.get(forecastFile);
+		try {
+			Optional<WeatherConditionIndex> index = WeatherForecastFile.read(path, solarSystem, firstDay, endDay);
+			if (index.isPresent()) {
+				log.info(String.format("Loaded the forecast of %d days from %s.", index.get().getHorizon(), path));
+				weatherPredictionsIndex.load(index.get());
+				return index.get();
+			}
+		} catch (IOException e) {
+			log.warn(String.format("Unable to read the forecast file %s.", path), e);
+		}
+
+		return null;
+	}
+
+	/*
+	 * Appends the missing days up to the end day a chunk at a time, publishing
+	 * the days computed so far after each chunk. The chunks grow with the
+	 * index so the range forecast has enough days to split, while appending
+	 * only copies the last chunk of the index, so a daily update costs the new
+	 * days. When the system is periodic, the days a whole cycle after the
+	 * known ones are copied instead of computed.
+	 *
+	 * The seasons are stored along the way: the next chunk is computed on the
+	 * common pool while the seasons of the last one are analyzed and written,
+	 * so the writes overlap the forecast instead of following it. Only the
+	 * seasons from the last stored one are written again. The predictions do
+	 * not depend on them, so a failure to store them does not fail the update,
+	 * and the next one resumes from the last stored season.
+	 */
+	private WeatherConditionIndex extendIndex(WeatherConditionIndex index, long firstDay, long endDay) {
+		OptionalLong period = PeriodAnalyzer.getJointPeriod(solarSystem.getOrbits());
+
+		WeatherConditionIndex extended = index == null ? new WeatherConditionIndex(firstDay, new WeatherCondition[0])
+				: index;
+		WeatherSeasonsBulkLoader.Session seasons = null;
+		try {
+			seasons = weatherSeasonsBulkLoader.open(extended);
+		} catch (SQLException e) {
+			log.error("Unable to store the weather seasons.", e);
+		}
+
+		try {
+			CompletableFuture<WeatherCondition[]> computing = null;
+			while (extended.getEndDay() < endDay) {
+				if (Thread.currentThread().isInterrupted()) {
+					throw new IllegalStateException("The update of the weather predictions was interrupted.");
+				}
+
+				long from = extended.getEndDay();
+				long to = getChunkEnd(extended, period, endDay);
+
+				WeatherCondition[] conditions;
+				if (computing != null) {
+					conditions = computing.join();
+				} else if (isCopied(extended, period)) {
+					conditions = new WeatherCondition[(int) (to - from)];
+					for (int i = 0; i < conditions.length; i++) {
+						conditions[i] = extended.getCondition(from + i - period.getAsLong());
+					}
+				} else {
+					conditions = WeatherForecaster.forecastRange(solarSystem.getStarPosition(), from, to,
+							solarSystem.getOrbits());
+				}
+
+				extended = extended.append(conditions);
+				weatherPredictionsIndex.load(extended);
+				log.debug(String.format("Computed the forecast up to the day %d.", to));
+
+				computing = null;
+				if (extended.getEndDay() < endDay && !isCopied(extended, period)) {
+					long nextFrom = extended.getEndDay();
+					long nextTo = getChunkEnd(extended, period, endDay);
+					computing = CompletableFuture.supplyAsync(() -> WeatherForecaster
+							.forecastRange(solarSystem.getStarPosition(), nextFrom, nextTo, solarSystem.getOrbits()));
+				}
+
+				if (seasons != null) {
+					try {
+						seasons.accept(conditions);
+					} catch (SQLException e) {
+						log.error("Unable to store the weather seasons.", e);
+						seasons = closeSeasons(seasons);
+					}
+				}
+			}
+
+			if (seasons != null) {
+				try {
+					seasons.finish();
+				} catch (SQLException e) {
+					log.error("Unable to store the weather seasons.", e);
+				}
+			}
+		} finally {
+			closeSeasons(seasons);
+		}
+
+		return extended;
+	}
+
+	/*
+	 * Returns whether the days after the given index are copied from the ones
+	 * a whole cycle before them.
+	 */
+	private static boolean isCopied(WeatherConditionIndex index, OptionalLong period) {
+		return period.isPresent() && index.getEndDay() - period.getAsLong() >= index.getFirstDay();
+	}
+
+	private static long getChunkEnd(WeatherConditionIndex index, OptionalLong period, long endDay) {
+		long from = index.getEndDay();
+		long to = Math.min(from + Math.max(CHUNK_DAYS, index.getHorizon()), endDay);
+		return isCopied(index, period) ? Math.min(to, from + period.getAsLong()) : to;
+	}
+
+	/*
+	 * Releases the load of the seasons, if there is one, rolling it back if it
+	 * was not finished, and returns null.
+	 */
+	private WeatherSeasonsBulkLoader.Session closeSeasons(WeatherSeasonsBulkLoader.Session seasons) {
+		if (seasons != null) {
+			try {
+				seasons.close();
+			} catch (SQLException e) {
+				log.warn("Unable to release the connection of the weather seasons.", e);
+			}
+		}
+
+		return null;
 	}
 
 }
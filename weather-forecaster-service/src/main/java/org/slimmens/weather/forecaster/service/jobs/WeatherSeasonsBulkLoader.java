@@ -0,0 +1,256 @@
+package org.slimmens.weather.forecaster.service.jobs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+import org.slimmens.weather.forecaster.core.Season;
+import org.slimmens.weather.forecaster.core.SeasonAnalyzer;
+import org.slimmens.weather.forecaster.core.WeatherCondition;
+import org.slimmens.weather.forecaster.core.WeatherConditionIndex;
+import org.slimmens.weather.forecaster.service.utils.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WeatherSeasonsBulkLoader {
+
+	private static final String INSERT_SEASON = "INSERT INTO WEATHER_SEASONS "
+			+ "(START_DAY, END_DAY, CONDITION, CREATED_AT, UPDATED_AT) VALUES (?, ?, ?, ?, ?)";
+
+	private static final String INSERT_PICK = "INSERT INTO WEATHER_SEASON_PICKS (START_DAY, PICK_DAY) VALUES (?, ?)";
+
+	private static final String DELETE_PICKS_BEFORE = "DELETE FROM WEATHER_SEASON_PICKS WHERE START_DAY IN "
+			+ "(SELECT START_DAY FROM WEATHER_SEASONS WHERE END_DAY < ?)";
+
+	private static final String DELETE_SEASONS_BEFORE = "DELETE FROM WEATHER_SEASONS WHERE END_DAY < ?";
+
+	private static final String DELETE_PICKS_FROM = "DELETE FROM WEATHER_SEASON_PICKS WHERE START_DAY >= ?";
+
+	private static final String DELETE_SEASONS_FROM = "DELETE FROM WEATHER_SEASONS WHERE START_DAY >= ?";
+
+	private static final String DELETE_ALL_PICKS = "DELETE FROM WEATHER_SEASON_PICKS";
+
+	private static final String DELETE_ALL_SEASONS = "DELETE FROM WEATHER_SEASONS";
+
+	private static final String SELECT_LAST_START_DAY = "SELECT MAX(START_DAY) FROM WEATHER_SEASONS";
+
+	private static final int BATCH_SIZE = 1000;
+
+	@Log
+	private Logger log;
+
+	@Autowired
+	private DataSource dataSource;
+
+	/*
+	 * Starts bringing the stored seasons in line with the given index within a
+	 * single transaction, which the returned session commits once the days
+	 * appended after the index are given to it. The seasons that ended before
+	 * the index are dropped and only the last stored season and the ones after
+	 * it are analyzed again, so the work is proportional to the new days.
+	 */
+	public Session open(WeatherConditionIndex index) throws SQLException {
+		Connection connection = dataSource.getConnection();
+		try {
+			return new Session(connection, index);
+		} catch (SQLException | RuntimeException e) {
+			connection.close();
+			throw e;
+		}
+	}
+
+	/*
+	 * Deletes the seasons to be written again and returns the day to resume
+	 * the analysis from.
+	 */
+	private long prepare(Connection connection, WeatherConditionIndex index) throws SQLException {
+		update(connection, DELETE_PICKS_BEFORE, index.getFirstDay());
+		update(connection, DELETE_SEASONS_BEFORE, index.getFirstDay());
+
+		// The stored seasons are only resumed if they do not go past the index,
+		// as the days after it are analyzed in the order they are given.
+		long resumeDay = index.getFirstDay();
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_LAST_START_DAY);
+				ResultSet resultSet = statement.executeQuery()) {
+			if (resultSet.next() && resultSet.getObject(1) != null && resultSet.getLong(1) <= index.getEndDay()) {
+				resumeDay = Math.max(resultSet.getLong(1), index.getFirstDay());
+			}
+		}
+
+		// When the analysis starts over from the first day, the season that
+		// crosses it is written again too.
+		if (resumeDay == index.getFirstDay()) {
+			update(connection, DELETE_ALL_PICKS);
+			update(connection, DELETE_ALL_SEASONS);
+		} else {
+			update(connection, DELETE_PICKS_FROM, resumeDay);
+			update(connection, DELETE_SEASONS_FROM, resumeDay);
+		}
+
+		return resumeDay;
+	}
+
+	private void update(Connection connection, String sql, long... parameters) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			for (int i = 0; i < parameters.length; i++) {
+				statement.setLong(i + 1, parameters[i]);
+			}
+
+			statement.executeUpdate();
+		}
+	}
+
+	/*
+	 * A load of the seasons in progress, which analyzes the days as they are
+	 * given and writes the seasons and their picks in batches as they are
+	 * closed, so the days can be given while the next ones are computed.
+	 */
+	public class Session implements AutoCloseable {
+
+		private final long start = System.nanoTime();
+
+		private final Timestamp now = new Timestamp(System.currentTimeMillis());
+
+		private final Connection connection;
+
+		private final boolean autoCommit;
+
+		private final PreparedStatement seasonStatement;
+
+		private final PreparedStatement pickStatement;
+
+		private final List<Season> seasons = new ArrayList<>(BATCH_SIZE);
+
+		private final SeasonAnalyzer analyzer;
+
+		/*
+		 * The rows written so far, counting both the seasons and their picks.
+		 */
+		private long rows;
+
+		private boolean committed;
+
+		private Session(Connection connection, WeatherConditionIndex index) throws SQLException {
+			this.connection = connection;
+			this.autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+
+			try {
+				long resumeDay = prepare(connection, index);
+				seasonStatement = connection.prepareStatement(INSERT_SEASON);
+				pickStatement = connection.prepareStatement(INSERT_PICK);
+				analyzer = new SeasonAnalyzer(resumeDay, false, seasons::add);
+
+				for (long day = resumeDay; day < index.getEndDay(); day++) {
+					analyzer.accept(index.getCondition(day));
+					flush(BATCH_SIZE);
+				}
+			} catch (SQLException | RuntimeException e) {
+				close();
+				throw e;
+			}
+		}
+
+		/*
+		 * Analyzes the given days, which follow the last ones given.
+		 */
+		public void accept(WeatherCondition[] conditions) throws SQLException {
+			for (WeatherCondition condition : conditions) {
+				analyzer.accept(condition);
+				flush(BATCH_SIZE);
+			}
+		}
+
+		/*
+		 * Writes the last seasons, commits them and returns the rows written.
+		 */
+		public long finish() throws SQLException {
+			analyzer.finish();
+			flush(1);
+			connection.commit();
+			committed = true;
+
+			double seconds = (System.nanoTime() - start) / 1e9;
+			log.info(String.format("Loaded %d rows of weather seasons in %.3f s (%.0f rows/s).", rows, seconds,
+					rows / Math.max(seconds, 1e-9)));
+
+			return rows;
+		}
+
+		/*
+		 * Releases the connection, rolling back the seasons if they were not
+		 * committed.
+		 */
+		@Override
+		public void close() throws SQLException {
+			try {
+				if (seasonStatement != null) {
+					seasonStatement.close();
+				}
+				if (pickStatement != null) {
+					pickStatement.close();
+				}
+				if (!committed) {
+					connection.rollback();
+				}
+				connection.setAutoCommit(autoCommit);
+			} finally {
+				connection.close();
+			}
+		}
+
+		/*
+		 * Writes the closed seasons and their picks as a batch if there are at
+		 * least the given amount of them. The picks are written after their
+		 * seasons.
+		 */
+		private void flush(int minimumSeasons) throws SQLException {
+			if (seasons.size() < minimumSeasons) {
+				return;
+			}
+
+			for (Season season : seasons) {
+				seasonStatement.setLong(1, season.getStartDay());
+				seasonStatement.setLong(2, season.getEndDay());
+				seasonStatement.setString(3, season.getCondition().name());
+				seasonStatement.setTimestamp(4, now);
+				seasonStatement.setTimestamp(5, now);
+				seasonStatement.addBatch();
+
+				for (long pickDay : season.getPickDays()) {
+					pickStatement.setLong(1, season.getStartDay());
+					pickStatement.setLong(2, pickDay);
+					pickStatement.addBatch();
+				}
+			}
+
+			rows += countRows(seasonStatement.executeBatch());
+			rows += countRows(pickStatement.executeBatch());
+			seasons.clear();
+		}
+
+	}
+
+	/*
+	 * Returns the rows written by a batch, counting one for each statement
+	 * the driver does not report a count for.
+	 */
+	private static long countRows(int[] updateCounts) {
+		long rows = 0;
+		for (int updateCount : updateCounts) {
+			rows += updateCount == Statement.SUCCESS_NO_INFO ? 1 : Math.max(updateCount, 0);
+		}
+
+		return rows;
+	}
+
+}
@@ -0,0 +1,38 @@
+package org.slimmens.weather.forecaster.service.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LeastRecentlyUsedMap<K, V> extends LinkedHashMap<K, V> {
+
+	private static final long serialVersionUID = -3180542926617465870L;
+
+	private final int capacity;
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	public LeastRecentlyUsedMap(int capacity) {
+		super(16, 0.75f, true);
+		this.capacity = capacity;
+	}
+
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+		if (size() > capacity) {
+			evictions.incrementAndGet();
+			return true;
+		}
+
+		return false;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+}
@@ -6,13 +6,21 @@ import org.apache.log4j.Logger;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.FatalBeanException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
 import org.springframework.stereotype.Component;
 
 @Component
-public class LogInjector implements BeanPostProcessor {
+public class LogInjector implements BeanPostProcessor, PriorityOrdered {
 
 	@Override
-	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+	public int getOrder() {
+		// Before the @PostConstruct methods, which may already log.
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
 		Class<?> clazz = bean.getClass();
 		for (Field field : clazz.getDeclaredFields()) {
 			if (!field.isAnnotationPresent(Log.class)) {